@@ -0,0 +1,132 @@
+// AdmissionControlInterceptor.java
+package com.local.train.config;
+
+import com.local.train.exception.ServiceUnavailableException;
+import com.local.train.utils.AdaptiveLimit;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the booking, wallet and admin APIs.
+ *
+ * Each priority class has its own {@link AdaptiveLimit}. A completed request counts as congested
+ * when threads are queued for a Hikari connection or it took longer than
+ * {@code app.admission.latency-target-ms}, and congestion shrinks the limit. Lower classes start
+ * smaller and back off harder, and reports and seat-map polling are refused outright while any
+ * thread is waiting for a connection. Requests over the limit fail at once with 503 and Retry-After
+ * instead of queueing for the pool.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    public enum Priority {
+        /** Bookings, cancellations and payments */
+        CRITICAL,
+        /** Other reads of the caller's own data */
+        NORMAL,
+        /** Admin and reports, seat-map polling */
+        LOW
+    }
+
+    private record Permit(Priority priority, long startNanos) {
+    }
+
+    private final DataSource dataSource;
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.admission.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${app.admission.latency-target-ms:1000}")
+    private long latencyTargetMs;
+
+    @Value("${app.admission.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private final Map<Priority, AdaptiveLimit> limits = new EnumMap<>(Priority.class);
+    private volatile HikariPoolMXBean pool;
+
+    @PostConstruct
+    public void init() {
+        limits.put(Priority.CRITICAL, new AdaptiveLimit(Math.max(4, maxLimit / 4), 4, maxLimit, 0.9));
+        limits.put(Priority.NORMAL, new AdaptiveLimit(Math.max(2, maxLimit / 8), 2, maxLimit / 2, 0.75));
+        limits.put(Priority.LOW, new AdaptiveLimit(Math.max(1, maxLimit / 16), 1, maxLimit / 4, 0.5));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        Priority priority = classify(request);
+        if (priority == Priority.LOW && threadsAwaitingConnection() > 0) {
+            throw new ServiceUnavailableException("Server is busy, please retry shortly", retryAfterSeconds);
+        }
+        if (!limits.get(priority).tryAcquire()) {
+            throw new ServiceUnavailableException("Server is busy, please retry shortly", retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(priority, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit)) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - permit.startNanos());
+        boolean congested = elapsedMs > latencyTargetMs || threadsAwaitingConnection() > 0;
+        limits.get(permit.priority()).release(congested);
+    }
+
+    public Map<Priority, AdaptiveLimit.Stats> stats() {
+        Map<Priority, AdaptiveLimit.Stats> stats = new EnumMap<>(Priority.class);
+        limits.forEach((priority, limit) -> stats.put(priority, limit.stats()));
+        return stats;
+    }
+
+    static Priority classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (path.startsWith("/api/admin") || path.endsWith("/seats") || path.endsWith("/seat-map")) {
+            return Priority.LOW;
+        }
+        return read ? Priority.NORMAL : Priority.CRITICAL;
+    }
+
+    private int threadsAwaitingConnection() {
+        HikariPoolMXBean current = pool;
+        if (current == null) {
+            try {
+                // Null until the pool has started
+                current = pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            } catch (SQLException e) {
+                return 0;
+            }
+            if (current == null) {
+                return 0;
+            }
+        }
+        return current.getThreadsAwaitingConnection();
+    }
+}
@@ -0,0 +1,57 @@
+// ExportLimitInterceptor.java
+package com.local.train.config;
+
+import com.local.train.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps concurrent report exports. An export holds a pooled connection for as long as the client
+ * reads, so it is kept out of the latency-based admission limits and gated by a small fixed count
+ * instead. Exports over the cap fail at once with 503 and Retry-After.
+ */
+@Component
+public class ExportLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ExportLimitInterceptor.class.getName() + ".permit";
+
+    @Value("${app.reports.max-concurrent-exports:2}")
+    private int maxConcurrentExports;
+
+    @Value("${app.reports.export-retry-after-seconds:30}")
+    private long retryAfterSeconds;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrentExports));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        if (!permits.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many exports in progress, please retry later", retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) == null) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        permits.release();
+    }
+}
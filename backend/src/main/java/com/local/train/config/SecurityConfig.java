@@ -1,10 +1,11 @@
 // SecurityConfig.java
 package com.local.train.config;
 
-import com.local.train.repository.UserRepository;
 import com.local.train.entity.UserRole;
 import com.local.train.security.JwtAuthenticationFilter;
+import com.local.train.service.UserCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,7 +29,10 @@ public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    
+    @Value("${app.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -48,11 +52,11 @@ public class SecurityConfig {
     
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
+        return username -> userCache.find(username)
                 .map(user -> org.springframework.security.core.userdetails.User.builder()
-                        .username(user.getEmail())
-                        .password(user.getPassword())
-                        .roles(user.getRole().name())
+                        .username(user.email())
+                        .password(user.password())
+                        .roles(user.role().name())
                         .build())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
     }
@@ -67,7 +71,7 @@ public class SecurityConfig {
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
     
     @Bean
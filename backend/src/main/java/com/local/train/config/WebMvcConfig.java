@@ -0,0 +1,25 @@
+// WebMvcConfig.java
+package com.local.train.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final ExportLimitInterceptor exportLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/bookings/**", "/api/wallet/**", "/api/admin/**")
+                // Exports stream for as long as the client reads; their latency is not congestion
+                .excludePathPatterns("/api/admin/reports/*/export");
+        registry.addInterceptor(exportLimitInterceptor)
+                .addPathPatterns("/api/admin/reports/*/export");
+    }
+}
@@ -1,17 +1,47 @@
 package com.local.train.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.local.train.config.AdmissionControlInterceptor;
+import com.local.train.dto.AnalyticsGroup;
+import com.local.train.dto.BookingReportRow;
+import com.local.train.dto.DailyBookingSummary;
+import com.local.train.dto.PaymentGroup;
+import com.local.train.dto.ReportPage;
+import com.local.train.dto.RevenueGroup;
+import com.local.train.dto.RevenueReport;
 import com.local.train.dto.ScheduleRequest;
 import com.local.train.dto.ScheduleResponse;
+import com.local.train.dto.StationFareRequest;
 import com.local.train.dto.StationRequest;
+import com.local.train.dto.TransactionReportRow;
 import com.local.train.entity.Station;
+import com.local.train.entity.StationFare;
 import com.local.train.entity.TrainSchedule;
+import com.local.train.security.PasswordHasher;
 import com.local.train.service.AdminService;
+import com.local.train.service.AnalyticsSnapshotService;
+import com.local.train.service.BookingAnalytics;
+import com.local.train.service.DailyRollupService;
+import com.local.train.service.ReportingService;
+import com.local.train.service.UserCache;
+import com.local.train.utils.AdaptiveLimit;
+import com.local.train.utils.ReportExportWriter;
+import com.local.train.utils.ReportExportWriter.Column;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -19,7 +49,38 @@ import java.util.List;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private static final List<Column<BookingReportRow>> BOOKING_COLUMNS = List.of(
+            new Column<>("id", BookingReportRow::id),
+            new Column<>("pnrNumber", BookingReportRow::pnrNumber),
+            new Column<>("bookingDate", BookingReportRow::bookingDate),
+            new Column<>("journeyDate", BookingReportRow::journeyDate),
+            new Column<>("trainNumber", BookingReportRow::trainNumber),
+            new Column<>("trainName", BookingReportRow::trainName),
+            new Column<>("sourceStation", BookingReportRow::sourceStation),
+            new Column<>("destinationStation", BookingReportRow::destinationStation),
+            new Column<>("travelClass", BookingReportRow::travelClass),
+            new Column<>("status", BookingReportRow::status),
+            new Column<>("totalFare", BookingReportRow::totalFare),
+            new Column<>("passengerCount", BookingReportRow::passengerCount));
+    private static final List<Column<TransactionReportRow>> TRANSACTION_COLUMNS = List.of(
+            new Column<>("id", TransactionReportRow::id),
+            new Column<>("transactionId", TransactionReportRow::transactionId),
+            new Column<>("createdAt", TransactionReportRow::createdAt),
+            new Column<>("type", TransactionReportRow::type),
+            new Column<>("method", TransactionReportRow::method),
+            new Column<>("status", TransactionReportRow::status),
+            new Column<>("amount", TransactionReportRow::amount),
+            new Column<>("description", TransactionReportRow::description),
+            new Column<>("walletId", TransactionReportRow::walletId),
+            new Column<>("pnrNumber", TransactionReportRow::pnrNumber));
+
     private final AdminService adminService;
+    private final UserCache userCache;
+    private final PasswordHasher passwordHasher;
+    private final AdmissionControlInterceptor admissionControl;
+    private final DailyRollupService dailyRollupService;
+    private final AnalyticsSnapshotService analyticsSnapshotService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/stations")
     public ResponseEntity<Station> createStation(@RequestBody StationRequest request) {
@@ -31,12 +92,185 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllStations());
     }
 
+    @PutMapping("/fares")
+    public ResponseEntity<StationFare> setStationFare(@Valid @RequestBody StationFareRequest request) {
+        return ResponseEntity.ok(adminService.setStationFare(request));
+    }
+
     @PostMapping("/schedules")
     public ResponseEntity<ScheduleResponse> createSchedule(@RequestBody ScheduleRequest request) {
         TrainSchedule schedule = adminService.createSchedule(request);
         return ResponseEntity.ok(convertToResponse(schedule));
     }
 
+    @GetMapping("/reports/revenue")
+    public ResponseEntity<RevenueReport> getRevenueReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(adminService.getRevenueReport(startDate, endDate));
+    }
+
+    @GetMapping("/reports/revenue/by-{dimension}")
+    public ResponseEntity<List<RevenueGroup>> getRevenueBreakdown(
+            @PathVariable String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ReportingService.Dimension groupBy;
+        try {
+            groupBy = ReportingService.Dimension.valueOf(dimension.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(adminService.getRevenueBreakdown(groupBy, startDate, endDate));
+    }
+
+    @GetMapping("/reports/bookings/daily")
+    public ResponseEntity<List<DailyBookingSummary>> getBookingSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(adminService.getBookingSummary(startDate, endDate));
+    }
+
+    @GetMapping("/reports/bookings")
+    public ResponseEntity<ReportPage<BookingReportRow>> getBookingReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(adminService.getBookingReport(startDate, endDate, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reports/bookings/export")
+    public void exportBookings(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) throws IOException {
+        ReportExportWriter.Format exportFormat = exportFormat(format, "bookings", response);
+        if (exportFormat == null) {
+            return;
+        }
+        try (ReportExportWriter<BookingReportRow> out = ReportExportWriter.open(
+                exportFormat, BOOKING_COLUMNS, objectMapper.getFactory(), response.getOutputStream())) {
+            adminService.exportBookings(startDate, endDate, out);
+        }
+    }
+
+    @GetMapping("/reports/transactions")
+    public ResponseEntity<ReportPage<TransactionReportRow>> getTransactionReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(adminService.getTransactionReport(startDate, endDate, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reports/transactions/export")
+    public void exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) throws IOException {
+        ReportExportWriter.Format exportFormat = exportFormat(format, "transactions", response);
+        if (exportFormat == null) {
+            return;
+        }
+        try (ReportExportWriter<TransactionReportRow> out = ReportExportWriter.open(
+                exportFormat, TRANSACTION_COLUMNS, objectMapper.getFactory(), response.getOutputStream())) {
+            adminService.exportTransactions(startDate, endDate, out);
+        }
+    }
+
+    @GetMapping("/analytics/bookings/by-{dimension}")
+    public ResponseEntity<List<AnalyticsGroup>> getBookingAnalytics(
+            @PathVariable String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        BookingAnalytics.Dimension groupBy;
+        try {
+            groupBy = BookingAnalytics.Dimension.valueOf(dimension.replace('-', '_').toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(analyticsSnapshotService.current().bookings(groupBy, startDate, endDate));
+    }
+
+    @GetMapping("/analytics/payments/by-{dimension}")
+    public ResponseEntity<List<PaymentGroup>> getPaymentAnalytics(
+            @PathVariable String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        BookingAnalytics.PaymentDimension groupBy;
+        try {
+            groupBy = BookingAnalytics.PaymentDimension.valueOf(dimension.replace('-', '_').toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(analyticsSnapshotService.current().payments(groupBy, startDate, endDate));
+    }
+
+    @GetMapping("/analytics/snapshot")
+    public ResponseEntity<BookingAnalytics.Info> getAnalyticsSnapshot() {
+        return ResponseEntity.ok(analyticsSnapshotService.current().info());
+    }
+
+    @PostMapping("/analytics/snapshot")
+    public ResponseEntity<BookingAnalytics.Info> refreshAnalyticsSnapshot() {
+        return ResponseEntity.ok(analyticsSnapshotService.refresh());
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        return ResponseEntity.ok(Map.of("rows", dailyRollupService.rebuild()));
+    }
+
+    @GetMapping("/rollups/verify")
+    public ResponseEntity<DailyRollupService.Verification> verifyRollups() {
+        return ResponseEntity.ok(dailyRollupService.verify());
+    }
+
+    @GetMapping("/cache/users")
+    public ResponseEntity<UserCache.Stats> getUserCacheStats() {
+        return ResponseEntity.ok(userCache.stats());
+    }
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHasher.Stats> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHasher.stats());
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<Map<AdmissionControlInterceptor.Priority, AdaptiveLimit.Stats>> getAdmissionStats() {
+        return ResponseEntity.ok(admissionControl.stats());
+    }
+
+    /**
+     * @return the requested format with the response headers set, or null after sending a 400
+     */
+    private static ReportExportWriter.Format exportFormat(String format, String name, HttpServletResponse response)
+            throws IOException {
+        ReportExportWriter.Format exportFormat;
+        try {
+            exportFormat = ReportExportWriter.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return null;
+        }
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "." + exportFormat.extension()).build().toString());
+        return exportFormat;
+    }
+
     private ScheduleResponse convertToResponse(TrainSchedule schedule) {
         return ScheduleResponse.builder()
                 .id(schedule.getId())
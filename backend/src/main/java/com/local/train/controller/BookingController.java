@@ -1,20 +1,35 @@
 package com.local.train.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.local.train.dto.BookingRequest;
 import com.local.train.dto.BookingResponse;
+import com.local.train.dto.JourneyOption;
+import com.local.train.dto.ScheduleSummary;
+import com.local.train.dto.SeatMapResponse;
 import com.local.train.entity.Station;
-import com.local.train.entity.TrainSchedule;
+import com.local.train.entity.TravelClass;
+import com.local.train.service.BookingPipeline;
 import com.local.train.service.BookingService;
+import com.local.train.service.JourneyPlanner;
+import com.local.train.service.TicketPipeline;
+import com.local.train.utils.FileStreamer;
+import com.local.train.utils.ScheduleSummaryJsonWriter;
+import com.local.train.utils.TicketFileStore.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -23,10 +38,20 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingPipeline bookingPipeline;
+    private final JourneyPlanner journeyPlanner;
+    private final TicketPipeline ticketPipeline;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.search.max-results:100}")
+    private int maxSearchResults;
 
     @PostMapping
-    public ResponseEntity<BookingResponse> createBooking(@RequestBody BookingRequest request, Authentication authentication) {
-        return ResponseEntity.ok(bookingService.createBooking(request, authentication.getName()));
+    public ResponseEntity<BookingResponse> createBooking(
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication) {
+        return ResponseEntity.ok(bookingPipeline.submit(request, authentication.getName(), idempotencyKey));
     }
 
     @GetMapping("/my-bookings")
@@ -40,27 +65,54 @@ public class BookingController {
     }
 
     @GetMapping("/{id}/ticket")
-    public ResponseEntity<byte[]> downloadTicket(@PathVariable Long id) {
-        byte[] pdfContent = bookingService.generateTicketPdf(id);
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", "ticket.pdf");
-        
-        return new ResponseEntity<>(pdfContent, headers, HttpStatus.OK);
+    public void downloadTicket(@PathVariable Long id, Authentication authentication, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        // Tickets are prebuilt by the ticket pipeline; this only streams the stored file
+        StoredFile ticket = ticketPipeline.getTicketFile(id, authentication.getName());
+        FileStreamer.stream(ticket.path(), ticket.etag(), MediaType.APPLICATION_PDF_VALUE, "ticket.pdf",
+                request, response);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<TrainSchedule>> searchSchedules(
+    public ResponseEntity<StreamingResponseBody> searchSchedules(
             @RequestParam Long sourceId,
             @RequestParam Long destinationId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return ResponseEntity.ok(bookingService.searchSchedules(sourceId, destinationId, date));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Integer limit) {
+        List<ScheduleSummary> rows = bookingService.searchSchedules(sourceId, destinationId, date);
+        int bounded = limit != null ? Math.max(0, Math.min(limit, maxSearchResults)) : maxSearchResults;
+        StreamingResponseBody body = out -> ScheduleSummaryJsonWriter.write(
+                objectMapper.getFactory(), out, rows, bounded);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+    
+    @GetMapping("/journeys")
+    public ResponseEntity<List<JourneyOption>> planJourney(
+            @RequestParam Long sourceId,
+            @RequestParam Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime departAfter,
+            @RequestParam(required = false) Integer maxTransfers) {
+        return ResponseEntity.ok(journeyPlanner.plan(sourceId, destinationId, date, departAfter, maxTransfers));
     }
     
     @GetMapping("/schedules/{scheduleId}/seats")
-    public ResponseEntity<List<String>> getBookedSeats(@PathVariable Long scheduleId) {
-        return ResponseEntity.ok(bookingService.getBookedSeats(scheduleId));
+    public ResponseEntity<List<String>> getBookedSeats(
+            @PathVariable Long scheduleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) TravelClass travelClass) {
+        return ResponseEntity.ok(bookingService.getBookedSeats(scheduleId, date, travelClass));
+    }
+    
+    @GetMapping("/schedules/{scheduleId}/seat-map")
+    public ResponseEntity<SeatMapResponse> getSeatMap(
+            @PathVariable Long scheduleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam TravelClass travelClass,
+            @RequestParam(defaultValue = "BITSET") String encoding) {
+        return ResponseEntity.ok(bookingService.getSeatMap(scheduleId, date, travelClass, encoding));
     }
 
     @GetMapping("/stations")
@@ -0,0 +1,42 @@
+package com.local.train.controller;
+
+import com.local.train.dto.TicketVerificationResponse;
+import com.local.train.security.TicketTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline ticket verification for gate scanners: checks the signed QR token only, no database.
+ */
+@RestController
+@RequestMapping("/api/public/tickets")
+@RequiredArgsConstructor
+public class TicketController {
+
+    private static final int MAX_BATCH = 1000;
+
+    private final TicketTokenService ticketTokenService;
+
+    @GetMapping("/verify")
+    public ResponseEntity<TicketVerificationResponse> verify(@RequestParam String token) {
+        return ResponseEntity.ok(ticketTokenService.verify(token));
+    }
+
+    @PostMapping("/verify")
+    public ResponseEntity<List<TicketVerificationResponse>> verifyBatch(
+            @RequestBody(required = false) List<String> tokens) {
+        // A missing body or a JSON null arrives as null
+        if (tokens == null || tokens.isEmpty() || tokens.size() > MAX_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<TicketVerificationResponse> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(ticketTokenService.verify(token));
+        }
+        return ResponseEntity.ok(results);
+    }
+}
@@ -0,0 +1,26 @@
+// AnalyticsGroup.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a grouped booking analytics query; {@code key} is the hour, day, route or class.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsGroup {
+    private String key;
+    private Long bookings;
+    private Long cancelledBookings;
+    private Double cancellationRate;
+    private Long seatsSold;
+    private BigDecimal revenue;
+    private BigDecimal refunds;
+}
@@ -0,0 +1,30 @@
+// BookingReportRow.java
+package com.local.train.dto;
+
+import com.local.train.entity.BookingStatus;
+import com.local.train.entity.TravelClass;
+import com.local.train.utils.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One booking in an admin report or export, built by a JPQL constructor expression in
+ * {@code BookingRepository} with the schedule names and passenger count already joined in;
+ * argument order must match those queries.
+ *
+ * @param totalFare rupees
+ */
+public record BookingReportRow(Long id, String pnrNumber, LocalDateTime bookingDate, LocalDateTime journeyDate,
+                               String trainNumber, String trainName, String sourceStation,
+                               String destinationStation, TravelClass travelClass, BookingStatus status,
+                               BigDecimal totalFare, Long passengerCount) {
+
+    public BookingReportRow(Long id, String pnrNumber, LocalDateTime bookingDate, LocalDateTime journeyDate,
+                            String trainNumber, String trainName, String sourceStation,
+                            String destinationStation, TravelClass travelClass, BookingStatus status,
+                            long totalFare, Long passengerCount) {
+        this(id, pnrNumber, bookingDate, journeyDate, trainNumber, trainName, sourceStation, destinationStation,
+                travelClass, status, Money.toDecimal(totalFare), passengerCount);
+    }
+}
@@ -5,7 +5,7 @@ import com.local.train.entity.PaymentMethod;
 import com.local.train.entity.TravelClass;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.FutureOrPresent;
-import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -33,8 +33,6 @@ public class BookingRequest {
     @NotNull(message = "Payment method is required")
     private PaymentMethod paymentMethod;
     
-    @Valid
-    @NotNull(message = "At least one passenger is required")
-    @Min(value = 1, message = "At least one passenger is required")
-    private List<PassengerDto> passengers;
+    @NotEmpty(message = "At least one passenger is required")
+    private List<@NotNull(message = "Passenger details are required") @Valid PassengerDto> passengers;
 }
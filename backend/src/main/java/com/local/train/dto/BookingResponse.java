@@ -2,6 +2,7 @@
 package com.local.train.dto;
 
 import com.local.train.entity.BookingStatus;
+import com.local.train.entity.TicketStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,5 +26,6 @@ public class BookingResponse {
     private BookingStatus status;
     private Integer passengerCount;
     private String ticketPath;
+    private TicketStatus ticketStatus;
     private LocalDate bookingDate;
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+// DailyBookingSummary.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyBookingSummary {
+    private LocalDate date;
+    private Long bookings;
+    private Long cancelledBookings;
+    private Long seatsSold;
+    private BigDecimal revenue;
+    private BigDecimal refunds;
+}
@@ -0,0 +1,25 @@
+// JourneyLeg.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneyLeg {
+    private Long scheduleId;
+    private String trainNumber;
+    private String trainName;
+    private Long sourceStationId;
+    private String sourceStation;
+    private Long destinationStationId;
+    private String destinationStation;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+}
@@ -0,0 +1,22 @@
+// JourneyOption.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JourneyOption {
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Integer transfers;
+    private Integer durationMinutes;
+    private List<JourneyLeg> legs;
+}
@@ -0,0 +1,8 @@
+// PassengerCount.java
+package com.local.train.dto;
+
+/**
+ * Passengers on one booking, built by a JPQL constructor expression in {@code PassengerRepository}.
+ */
+public record PassengerCount(Long bookingId, Long passengers) {
+}
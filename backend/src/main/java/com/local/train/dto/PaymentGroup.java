@@ -0,0 +1,22 @@
+// PaymentGroup.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a grouped payment analytics query; {@code key} is the method, type, status or hour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentGroup {
+    private String key;
+    private Long transactions;
+    private BigDecimal amount;
+}
@@ -0,0 +1,12 @@
+// ReportPage.java
+package com.local.train.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of a report.
+ *
+ * @param nextCursor opaque position to pass back for the following page; null on the last page
+ */
+public record ReportPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,23 @@
+// RevenueGroup.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a grouped revenue report; {@code key} is the day, train, route, class or status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueGroup {
+    private String key;
+    private Long bookings;
+    private Long cancelledBookings;
+    private BigDecimal revenue;
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Map;
 
@@ -16,11 +17,12 @@ import java.util.Map;
 public class RevenueReport {
     private LocalDate startDate;
     private LocalDate endDate;
-    private Double totalRevenue;
-    private Double totalRefunds;
-    private Double netRevenue;
+    private BigDecimal totalRevenue;
+    private BigDecimal totalRefunds;
+    private BigDecimal netRevenue;
     private Integer totalBookings;
     private Integer cancelledBookings;
-    private Map<String, Double> revenueByClass;
-    private Map<LocalDate, Double> dailyRevenue;
+    private Long seatsSold;
+    private Map<String, BigDecimal> revenueByClass;
+    private Map<LocalDate, BigDecimal> dailyRevenue;
 }
\ No newline at end of file
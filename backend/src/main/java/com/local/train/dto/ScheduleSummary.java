@@ -0,0 +1,28 @@
+// ScheduleSummary.java
+package com.local.train.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * Flat search row built directly by a JPQL constructor expression, so searches never hydrate
+ * schedule, train or station entities. Field order must match the query in
+ * {@code TrainScheduleRepository.findScheduleSummaries}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleSummary {
+    private Long id;
+    private String trainNumber;
+    private String trainName;
+    private String sourceStation;
+    private String destinationStation;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+}
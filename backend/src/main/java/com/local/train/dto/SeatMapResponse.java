@@ -0,0 +1,27 @@
+// SeatMapResponse.java
+package com.local.train.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.local.train.entity.TravelClass;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatMapResponse {
+    private Long scheduleId;
+    private LocalDate journeyDate;
+    private TravelClass travelClass;
+    private Integer totalSeats;
+    private Integer availableSeats;
+    private String encoding; // BITSET or RLE
+    private String bitset; // base64 of little-endian 64-bit words, bit i = seat i taken
+    private int[] runs; // alternating free/taken run lengths, starting with free
+}
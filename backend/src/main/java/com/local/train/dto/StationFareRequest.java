@@ -0,0 +1,31 @@
+// StationFareRequest.java
+package com.local.train.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationFareRequest {
+    @NotNull(message = "Source station ID is required")
+    private Long sourceStationId;
+    
+    @NotNull(message = "Destination station ID is required")
+    private Long destinationStationId;
+    
+    @NotNull(message = "Distance is required")
+    @Positive(message = "Distance must be positive")
+    private Double distanceKm;
+    
+    @Positive(message = "Base fare must be positive")
+    private Double baseFare;
+    
+    @Builder.Default
+    private boolean bidirectional = true;
+}
@@ -0,0 +1,26 @@
+// TicketVerificationResponse.java
+package com.local.train.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.local.train.entity.TravelClass;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TicketVerificationResponse {
+    private boolean valid;
+    private String reason; // set when not valid: MALFORMED, BAD_SIGNATURE, EXPIRED
+    private String pnrNumber;
+    private Long scheduleId;
+    private LocalDate journeyDate;
+    private TravelClass travelClass;
+    private Integer passengerCount;
+}
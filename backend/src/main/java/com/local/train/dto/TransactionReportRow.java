@@ -0,0 +1,29 @@
+// TransactionReportRow.java
+package com.local.train.dto;
+
+import com.local.train.entity.PaymentMethod;
+import com.local.train.entity.PaymentStatus;
+import com.local.train.entity.TransactionType;
+import com.local.train.utils.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One transaction in an admin report or export, built by a JPQL constructor expression in
+ * {@code TransactionRepository}; argument order must match those queries.
+ *
+ * @param amount    rupees
+ * @param pnrNumber null for transactions not tied to a booking
+ */
+public record TransactionReportRow(Long id, String transactionId, LocalDateTime createdAt, TransactionType type,
+                                   PaymentMethod method, PaymentStatus status, BigDecimal amount,
+                                   String description, Long walletId, String pnrNumber) {
+
+    public TransactionReportRow(Long id, String transactionId, LocalDateTime createdAt, TransactionType type,
+                                PaymentMethod method, PaymentStatus status, long amount,
+                                String description, Long walletId, String pnrNumber) {
+        this(id, transactionId, createdAt, type, method, status, Money.toDecimal(amount), description,
+                walletId, pnrNumber);
+    }
+}
@@ -0,0 +1,14 @@
+// UserPrincipal.java
+package com.local.train.dto;
+
+import com.local.train.entity.UserRole;
+
+/**
+ * Identity fields needed on nearly every request, built by a JPQL constructor expression in
+ * {@code UserRepository.findPrincipalByEmail}; argument order must match that query.
+ *
+ * @param password the stored password hash, only used to authenticate logins
+ * @param walletId null if the user has no wallet yet
+ */
+public record UserPrincipal(Long id, String email, String password, UserRole role, Long walletId) {
+}
@@ -12,7 +12,15 @@ import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "idempotency_key"}),
+       indexes = {
+               // Covers the rollup rebuild: aggregates read from the index alone
+               @Index(name = "idx_bookings_report",
+                      columnList = "booking_date, status, travel_class, schedule_id, total_fare"),
+               // Keyset order of booking reports and exports, (booking_date, id) with the implicit primary key
+               @Index(name = "idx_bookings_booking_date", columnList = "booking_date")
+       })
 @Data
 @Builder
 @NoArgsConstructor
@@ -39,7 +47,9 @@ public class Booking {
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL)
     private List<Passenger> passengers;
     
-    private Double totalFare;
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 12, scale = 2)
+    private long totalFare; // paise
     
     @Enumerated(EnumType.STRING)
     private BookingStatus status = BookingStatus.CONFIRMED;
@@ -50,13 +60,31 @@ public class Booking {
     private String qrCodePath;
     private String ticketPath;
     
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey; // client supplied, makes POST /api/bookings safe to retry
+    
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TicketStatus ticketStatus; // null for bookings made before tickets were prebuilt
+    
+    private Integer ticketAttempts;
+    private LocalDateTime ticketRetryAt;
+    
     @PrePersist
     protected void onCreate() {
         bookingDate = LocalDateTime.now();
-        pnrNumber = generatePNR();
+        if (pnrNumber == null) {
+            pnrNumber = generatePNR();
+        }
+        if (ticketStatus == null) {
+            ticketStatus = TicketStatus.PENDING;
+        }
+        if (ticketAttempts == null) {
+            ticketAttempts = 0;
+        }
     }
     
-    private String generatePNR() {
+    public static String generatePNR() {
         // A more random and less predictable PNR
         long number = ThreadLocalRandom.current().nextLong(100_000_000L, 1_000_000_000L);
         return "PNR" + number;
@@ -0,0 +1,54 @@
+// DailyRollup.java
+package com.local.train.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * Booking counters per booking day, schedule and class, maintained by {@code DailyRollupService}.
+ * Cancellations are booked against the day of the original booking, so each row always equals
+ * an aggregate over the bookings made that day in their current state.
+ */
+@Entity
+@Table(name = "daily_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"rollup_date", "schedule_id", "travel_class"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+    
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "travel_class", nullable = false, length = 32)
+    private TravelClass travelClass;
+    
+    private long confirmedBookings;
+    private long cancelledBookings;
+    
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 14, scale = 2)
+    private long revenue; // paise, fares of bookings still confirmed
+    
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 14, scale = 2)
+    private long collected; // paise, fares of every booking made
+    
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 14, scale = 2)
+    private long refunds; // paise
+    
+    private long seatsSold;
+}
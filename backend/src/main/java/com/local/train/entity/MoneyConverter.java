@@ -0,0 +1,26 @@
+// MoneyConverter.java
+package com.local.train.entity;
+
+import com.local.train.utils.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps paise held in a {@code long} attribute to a rupee DECIMAL(12,2) column. Reads also accept
+ * the DOUBLE columns of existing schemas, rounding to the nearest paisa.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long paise) {
+        return paise != null ? Money.toDecimal(paise) : null;
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal rupees) {
+        return rupees != null ? Money.ofDecimal(rupees) : null;
+    }
+}
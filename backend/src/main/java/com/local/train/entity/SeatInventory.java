@@ -0,0 +1,51 @@
+// SeatInventory.java
+package com.local.train.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "seat_inventory",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"schedule_id", "journey_date", "travel_class"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatInventory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+    
+    @Column(name = "journey_date", nullable = false)
+    private LocalDate journeyDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "travel_class", nullable = false)
+    private TravelClass travelClass;
+    
+    private Integer totalSeats;
+    private Integer availableSeats;
+    
+    @Lob
+    @Column(name = "seat_bitmap")
+    private byte[] seatBitmap; // bit i set = seat i taken, little-endian 64-bit words
+    
+    @Version
+    private Long version;
+    
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
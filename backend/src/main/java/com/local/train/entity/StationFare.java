@@ -0,0 +1,34 @@
+// StationFare.java
+package com.local.train.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "station_fares",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"source_station_id", "destination_station_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StationFare {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "source_station_id", nullable = false)
+    private Long sourceStationId;
+    
+    @Column(name = "destination_station_id", nullable = false)
+    private Long destinationStationId;
+    
+    @Column(nullable = false)
+    private Double distanceKm;
+    
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 12, scale = 2)
+    private Long baseFare; // paise, overrides distanceKm * rate-per-km when set
+}
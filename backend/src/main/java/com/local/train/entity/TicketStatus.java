@@ -0,0 +1,8 @@
+package com.local.train.entity;
+
+public enum TicketStatus {
+    PENDING,  // waiting to be rendered
+    RENDERED, // PDF stored, email still to be sent
+    READY,    // PDF stored and nothing left to do
+    FAILED    // rendering gave up after the configured attempts
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_wallet_ledger", columnList = "wallet_id, ledger_applied"),
+        // Keyset order of transaction reports and exports, (created_at, id)
+        @Index(name = "idx_transactions_created", columnList = "created_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,8 +27,9 @@ public class Transaction {
     @Column(unique = true, nullable = false)
     private String transactionId;
 
-    @Column(nullable = false)
-    private Double amount;
+    @Convert(converter = MoneyConverter.class)
+    @Column(nullable = false, precision = 12, scale = 2)
+    private long amount; // paise
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -66,6 +71,15 @@ public class Transaction {
     @Column(length = 2000)
     private String metadata; // JSON string for additional transaction data
 
+    // Signed change to the wallet balance in paise; null for entries that never touched the wallet
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 12, scale = 2)
+    private Long balanceDelta;
+
+    // Set once balanceDelta has been folded into wallets.balance by WalletLedger
+    @Column(nullable = false)
+    private Boolean ledgerApplied;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -75,6 +89,9 @@ public class Transaction {
         if (status == null) {
             status = PaymentStatus.PENDING;
         }
+        if (ledgerApplied == null) {
+            ledgerApplied = false;
+        }
     }
 
     @PreUpdate
@@ -1,8 +1,18 @@
 package com.local.train.entity;
 
 public enum TravelClass {
-    FIRST_CLASS,
-    SECOND_CLASS,
-    SLEEPER,
-    AC_COACH
+    FIRST_CLASS(3.0),
+    SECOND_CLASS(2.0),
+    SLEEPER(1.0),
+    AC_COACH(1.0);
+
+    private final double fareMultiplier;
+
+    TravelClass(double fareMultiplier) {
+        this.fareMultiplier = fareMultiplier;
+    }
+
+    public double getFareMultiplier() {
+        return fareMultiplier;
+    }
 }
@@ -1,6 +1,7 @@
 // User.java
 package com.local.train.entity;
 
+import com.local.train.event.UserEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -24,15 +24,11 @@ public class Wallet {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    private Double balance = 0.0;
+    // Snapshot maintained by WalletLedger; live balances are read from the ledger
+    @Convert(converter = MoneyConverter.class)
+    @Column(updatable = false, precision = 12, scale = 2)
+    private long balance; // paise
     
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL)
     private List<Transaction> transactions;
-    
-    @PrePersist
-    protected void onCreate() {
-        if (balance == null) {
-            balance = 0.0;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.local.train.event;
+
+import com.local.train.entity.Booking;
+import com.local.train.entity.TravelClass;
+
+import java.time.LocalDate;
+
+/**
+ * Counter deltas for one booking being made or cancelled, attributed to the day it was booked.
+ * Published inside the booking transaction; rollups apply it once that transaction commits.
+ *
+ * Money is in paise.
+ */
+public record BookingActivityEvent(LocalDate bookingDate, Long scheduleId, TravelClass travelClass,
+                                   int confirmed, int cancelled, long revenue, long collected,
+                                   long refunds, int seats) {
+
+    public static BookingActivityEvent booked(Booking booking) {
+        int seats = booking.getPassengers() != null ? booking.getPassengers().size() : 0;
+        return new BookingActivityEvent(booking.getBookingDate().toLocalDate(), booking.getSchedule().getId(),
+                booking.getTravelClass(), 1, 0, booking.getTotalFare(), booking.getTotalFare(), 0, seats);
+    }
+
+    public static BookingActivityEvent cancelled(Booking booking) {
+        int seats = booking.getPassengers() != null ? booking.getPassengers().size() : 0;
+        return new BookingActivityEvent(booking.getBookingDate().toLocalDate(), booking.getSchedule().getId(),
+                booking.getTravelClass(), -1, 1, -booking.getTotalFare(), 0, booking.getTotalFare(), -seats);
+    }
+}
@@ -0,0 +1,8 @@
+package com.local.train.event;
+
+/**
+ * Published when stations or station fares change, so cached fare data can be rebuilt once the
+ * change commits.
+ */
+public record FareDataChangedEvent() {
+}
@@ -0,0 +1,12 @@
+package com.local.train.event;
+
+/**
+ * Published when a train schedule is created, updated or deleted. Listeners that keep derived
+ * timetable data should react after the publishing transaction commits.
+ *
+ * The previous route is null for newly created schedules; the current route is null for deleted ones.
+ */
+public record ScheduleChangedEvent(Long scheduleId,
+                                   Long previousSourceId, Long previousDestinationId,
+                                   Long sourceId, Long destinationId) {
+}
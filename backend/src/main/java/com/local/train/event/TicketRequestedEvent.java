@@ -0,0 +1,8 @@
+package com.local.train.event;
+
+/**
+ * Published when a booking's ticket has to be (re)built, e.g. on confirmation or cancellation.
+ * The ticket pipeline picks it up once the publishing transaction commits.
+ */
+public record TicketRequestedEvent(Long bookingId) {
+}
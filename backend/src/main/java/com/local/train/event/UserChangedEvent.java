@@ -0,0 +1,8 @@
+package com.local.train.event;
+
+/**
+ * Published when a user row is updated or deleted (password, role, email, ...). Listeners that
+ * cache user data should drop it after the publishing transaction commits.
+ */
+public record UserChangedEvent(Long userId) {
+}
@@ -1,26 +1,44 @@
 // BookingRepository.java
 package com.local.train.repository;
 
+import com.local.train.dto.BookingReportRow;
 import com.local.train.entity.Booking;
 import com.local.train.entity.BookingStatus;
+import com.local.train.entity.TicketStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findByPnrNumber(String pnrNumber);
+    // Fetch plans: each graph covers exactly what its caller reads, in one joined select
+    @EntityGraph(attributePaths = {"schedule.sourceStation", "schedule.destinationStation"})
     List<Booking> findByUserId(Long userId);
     List<Booking> findByScheduleId(Long scheduleId);
     List<Booking> findByStatus(BookingStatus status);
     
+    @EntityGraph(attributePaths = {"schedule.sourceStation", "schedule.destinationStation", "passengers"})
     Optional<Booking> findByIdAndUserId(Long id, Long userId);
     
+    @EntityGraph(attributePaths = {"schedule.sourceStation", "schedule.destinationStation"})
+    Optional<Booking> findByUserEmailAndIdempotencyKey(String email, String idempotencyKey);
+    boolean existsByTicketPath(String ticketPath);
+    
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status = :status")
     List<Booking> findByUserIdAndStatus(@Param("userId") Long userId, 
                                         @Param("status") BookingStatus status);
@@ -38,9 +56,72 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.schedule.id = :scheduleId AND b.status = 'CONFIRMED'")
     Long countConfirmedBookingsBySchedule(@Param("scheduleId") Long scheduleId);
     
-    @Query("SELECT SUM(b.totalFare) FROM Booking b " +
-           "WHERE b.status = 'CONFIRMED' " +
-           "AND b.bookingDate BETWEEN :startDate AND :endDate")
-    Double sumRevenueBetweenDates(@Param("startDate") LocalDateTime startDate, 
+    @Query(value = "SELECT COALESCE(SUM(total_fare), 0) FROM bookings " +
+           "WHERE status = 'CONFIRMED' " +
+           "AND booking_date BETWEEN :startDate AND :endDate", nativeQuery = true)
+    BigDecimal sumRevenueBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                  @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+    
+    // Everything the ticket pipeline renders and emails
+    @Query("SELECT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.schedule s JOIN FETCH s.train " +
+           "JOIN FETCH s.sourceStation JOIN FETCH s.destinationStation " +
+           "LEFT JOIN FETCH b.passengers WHERE b.id = :id")
+    Optional<Booking> findWithPassengersById(@Param("id") Long id);
+
+    @Query("SELECT new com.local.train.dto.BookingReportRow(b.id, b.pnrNumber, b.bookingDate, b.journeyDate, " +
+           "t.trainNumber, t.trainName, src.stationName, dst.stationName, b.travelClass, b.status, b.totalFare, " +
+           "(SELECT COUNT(p) FROM Passenger p WHERE p.booking = b)) " +
+           "FROM Booking b JOIN b.schedule s JOIN s.train t " +
+           "JOIN s.sourceStation src JOIN s.destinationStation dst " +
+           "WHERE b.bookingDate >= :afterDate AND (b.bookingDate > :afterDate OR b.id > :afterId) " +
+           "AND b.bookingDate < :endDate ORDER BY b.bookingDate, b.id")
+    List<BookingReportRow> findReportPage(@Param("afterDate") LocalDateTime afterDate, @Param("afterId") Long afterId,
+                                          @Param("endDate") LocalDateTime endDate, Limit limit);
+    
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.local.train.dto.BookingReportRow(b.id, b.pnrNumber, b.bookingDate, b.journeyDate, " +
+           "t.trainNumber, t.trainName, src.stationName, dst.stationName, b.travelClass, b.status, b.totalFare, " +
+           "(SELECT COUNT(p) FROM Passenger p WHERE p.booking = b)) " +
+           "FROM Booking b JOIN b.schedule s JOIN s.train t " +
+           "JOIN s.sourceStation src JOIN s.destinationStation dst " +
+           "WHERE b.bookingDate >= :startDate AND b.bookingDate < :endDate ORDER BY b.bookingDate, b.id")
+    Stream<BookingReportRow> streamReport(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT b.id FROM Booking b " +
+           "WHERE b.ticketStatus IN ('PENDING', 'RENDERED') " +
+           "AND (b.ticketRetryAt IS NULL OR b.ticketRetryAt <= :now) " +
+           "ORDER BY b.id")
+    List<Long> findTicketsDue(@Param("now") LocalDateTime now, Limit limit);
+    
+    /**
+     * Stores a rendered ticket unless the booking changed status or was re-requested meanwhile.
+     *
+     * @return 0 if the render is stale and has to be redone
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.ticketPath = :path, b.ticketStatus = :status, " +
+           "b.ticketAttempts = 0, b.ticketRetryAt = NULL " +
+           "WHERE b.id = :id AND b.status = :bookingStatus " +
+           "AND (b.ticketStatus IS NULL OR b.ticketStatus = 'PENDING')")
+    int markTicketRendered(@Param("id") Long id, @Param("path") String path, @Param("status") TicketStatus status,
+                           @Param("bookingStatus") BookingStatus bookingStatus);
+    
+    /**
+     * @return 0 if the ticket was re-requested while it was being emailed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.ticketStatus = 'READY', b.ticketAttempts = 0, b.ticketRetryAt = NULL " +
+           "WHERE b.id = :id AND b.ticketStatus = 'RENDERED'")
+    int markTicketSent(@Param("id") Long id);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Booking b SET b.ticketStatus = :status, b.ticketAttempts = :attempts, " +
+           "b.ticketRetryAt = :retryAt WHERE b.id = :id")
+    int updateTicketStatus(@Param("id") Long id, @Param("status") TicketStatus status,
+                           @Param("attempts") int attempts, @Param("retryAt") LocalDateTime retryAt);
+}
@@ -1,14 +1,42 @@
 // PassengerRepository.java
 package com.local.train.repository;
 
+import com.local.train.dto.PassengerCount;
 import com.local.train.entity.Passenger;
+import com.local.train.entity.TravelClass;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PassengerRepository extends JpaRepository<Passenger, Long> {
     List<Passenger> findByBookingId(Long bookingId);
     List<Passenger> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+    
+    @Query("SELECT p.seatNumber FROM Passenger p " +
+           "WHERE p.booking.schedule.id = :scheduleId " +
+           "AND p.booking.journeyDate = :journeyDate " +
+           "AND p.booking.travelClass = :travelClass " +
+           "AND p.booking.status = 'CONFIRMED'")
+    List<String> findBookedSeatNumbers(
+            @Param("scheduleId") Long scheduleId,
+            @Param("journeyDate") LocalDateTime journeyDate,
+            @Param("travelClass") TravelClass travelClass);
+    
+    @Query("SELECT p.seatNumber FROM Passenger p " +
+           "WHERE p.booking.schedule.id = :scheduleId " +
+           "AND p.booking.status = 'CONFIRMED' " +
+           "AND p.seatNumber IS NOT NULL")
+    List<String> findBookedSeatNumbers(@Param("scheduleId") Long scheduleId);
+    
+    long countByBookingId(Long bookingId);
+    
+    @Query("SELECT new com.local.train.dto.PassengerCount(p.booking.id, COUNT(p)) FROM Passenger p " +
+           "WHERE p.booking.id IN :bookingIds GROUP BY p.booking.id")
+    List<PassengerCount> countByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+}
@@ -0,0 +1,16 @@
+// SeatInventoryRepository.java
+package com.local.train.repository;
+
+import com.local.train.entity.SeatInventory;
+import com.local.train.entity.TravelClass;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface SeatInventoryRepository extends JpaRepository<SeatInventory, Long> {
+    Optional<SeatInventory> findByScheduleIdAndJourneyDateAndTravelClass(
+            Long scheduleId, LocalDate journeyDate, TravelClass travelClass);
+}
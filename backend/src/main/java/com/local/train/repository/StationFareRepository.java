@@ -0,0 +1,13 @@
+// StationFareRepository.java
+package com.local.train.repository;
+
+import com.local.train.entity.StationFare;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StationFareRepository extends JpaRepository<StationFare, Long> {
+    Optional<StationFare> findBySourceStationIdAndDestinationStationId(Long sourceStationId, Long destinationStationId);
+}
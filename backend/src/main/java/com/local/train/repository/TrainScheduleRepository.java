@@ -1,7 +1,9 @@
 // TrainScheduleRepository.java
 package com.local.train.repository;
 
+import com.local.train.dto.ScheduleSummary;
 import com.local.train.entity.TrainSchedule;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,21 +12,39 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TrainScheduleRepository extends JpaRepository<TrainSchedule, Long> {
     
-    @Query("SELECT ts FROM TrainSchedule ts " +
+    @Query("SELECT DISTINCT ts FROM TrainSchedule ts " +
+           "LEFT JOIN FETCH ts.operatingDays " +
            "WHERE ts.sourceStation.id = :sourceId " +
            "AND ts.destinationStation.id = :destinationId " +
            "AND :dayOfWeek MEMBER OF ts.operatingDays " +
-           "AND ts.availableSeats > 0 " +
            "ORDER BY ts.departureTime")
     List<TrainSchedule> findAvailableSchedules(
             @Param("sourceId") Long sourceId,
             @Param("destinationId") Long destinationId,
             @Param("dayOfWeek") String dayOfWeek);
     
+    @Query("SELECT new com.local.train.dto.ScheduleSummary(" +
+           "ts.id, t.trainNumber, t.trainName, src.stationName, dst.stationName, " +
+           "ts.departureTime, ts.arrivalTime) " +
+           "FROM TrainSchedule ts " +
+           "JOIN ts.train t " +
+           "JOIN ts.sourceStation src " +
+           "JOIN ts.destinationStation dst " +
+           "WHERE src.id = :sourceId " +
+           "AND dst.id = :destinationId " +
+           "AND :dayOfWeek MEMBER OF ts.operatingDays " +
+           "ORDER BY ts.departureTime")
+    List<ScheduleSummary> findScheduleSummaries(
+            @Param("sourceId") Long sourceId,
+            @Param("destinationId") Long destinationId,
+            @Param("dayOfWeek") String dayOfWeek,
+            Limit limit);
+    
     @Query("SELECT ts FROM TrainSchedule ts " +
            "WHERE ts.train.id = :trainId " +
            "AND ts.departureTime >= :startTime " +
@@ -34,6 +54,13 @@ public interface TrainScheduleRepository extends JpaRepository<TrainSchedule, Lo
             @Param("startTime") LocalTime startTime,
             @Param("endTime") LocalTime endTime);
     
+    @Query("SELECT DISTINCT ts FROM TrainSchedule ts LEFT JOIN FETCH ts.operatingDays")
+    List<TrainSchedule> findAllWithOperatingDays();
+    
+    @Query("SELECT ts FROM TrainSchedule ts LEFT JOIN FETCH ts.train LEFT JOIN FETCH ts.operatingDays " +
+           "WHERE ts.id = :id")
+    Optional<TrainSchedule> findWithOperatingDaysById(@Param("id") Long id);
+    
     List<TrainSchedule> findBySourceStationId(Long sourceStationId);
     List<TrainSchedule> findByDestinationStationId(Long destinationStationId);
     
@@ -1,16 +1,23 @@
 // TransactionRepository.java
 package com.local.train.repository;
 
+import com.local.train.dto.TransactionReportRow;
 import com.local.train.entity.Transaction;
 import com.local.train.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -25,14 +32,32 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT SUM(t.amount) FROM Transaction t " +
-           "WHERE t.type = :type " +
-           "AND t.createdAt BETWEEN :startDate AND :endDate")
-    Double sumAmountByTypeAndDateRange(
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+           "WHERE type = :#{#type.name()} " +
+           "AND created_at BETWEEN :startDate AND :endDate", nativeQuery = true)
+    BigDecimal sumAmountByTypeAndDateRange(
             @Param("type") TransactionType type,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
     List<Transaction> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT new com.local.train.dto.TransactionReportRow(t.id, t.transactionId, t.createdAt, t.type, " +
+           "t.method, t.status, t.amount, t.description, t.wallet.id, b.pnrNumber) " +
+           "FROM Transaction t LEFT JOIN t.booking b " +
+           "WHERE t.createdAt >= :afterDate AND (t.createdAt > :afterDate OR t.id > :afterId) " +
+           "AND t.createdAt < :endDate ORDER BY t.createdAt, t.id")
+    List<TransactionReportRow> findReportPage(@Param("afterDate") LocalDateTime afterDate,
+                                              @Param("afterId") Long afterId,
+                                              @Param("endDate") LocalDateTime endDate, Limit limit);
+    
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.local.train.dto.TransactionReportRow(t.id, t.transactionId, t.createdAt, t.type, " +
+           "t.method, t.status, t.amount, t.description, t.wallet.id, b.pnrNumber) " +
+           "FROM Transaction t LEFT JOIN t.booking b " +
+           "WHERE t.createdAt >= :startDate AND t.createdAt < :endDate ORDER BY t.createdAt, t.id")
+    Stream<TransactionReportRow> streamReport(@Param("startDate") LocalDateTime startDate,
+                                              @Param("endDate") LocalDateTime endDate);
     List<Transaction> findByWalletIdOrderByCreatedAtDesc(Long walletId);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 // UserRepository.java
 package com.local.train.repository;
 
+import com.local.train.dto.UserPrincipal;
 import com.local.train.entity.User;
 import com.local.train.entity.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +15,10 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    
+    @Query("SELECT new com.local.train.dto.UserPrincipal(u.id, u.email, u.password, u.role, w.id) " +
+           "FROM User u LEFT JOIN u.wallet w WHERE u.email = :email")
+    Optional<UserPrincipal> findPrincipalByEmail(@Param("email") String email);
     boolean existsByEmail(String email);
     List<User> findByRole(UserRole role);
     
@@ -7,6 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,6 +19,10 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     @Query("SELECT w FROM Wallet w WHERE w.user.email = :email")
     Optional<Wallet> findByUserEmail(@Param("email") String email);
     
-    @Query("SELECT SUM(w.balance) FROM Wallet w")
-    Double getTotalWalletBalance();
+    @Query("SELECT w FROM Wallet w JOIN FETCH w.user u WHERE u.email IN :emails")
+    List<Wallet> findByUserEmailIn(@Param("emails") Collection<String> emails);
+    
+    // Native so the exact DECIMAL sum is returned rather than a converted attribute
+    @Query(value = "SELECT COALESCE(SUM(balance), 0) FROM wallets", nativeQuery = true)
+    BigDecimal getTotalWalletBalance();
 }
\ No newline at end of file
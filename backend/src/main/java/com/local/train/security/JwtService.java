@@ -2,22 +2,39 @@
 package com.local.train.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
     
+    public static final String ROLE_CLAIM = "role";
+    private static final String TYPE_CLAIM = "typ";
+    private static final String FAMILY_CLAIM = "fam";
+    private static final String REFRESH_TYPE = "refresh";
+    private static final String ROLE_PREFIX = "ROLE_";
+    
     @Value("${app.jwt.secret}")
     private String secret;
     
@@ -27,6 +44,44 @@ public class JwtService {
     @Value("${app.jwt.refresh-token.expiration}")
     private long refreshExpiration;
     
+    @Value("${app.jwt.verified-cache.max-entries:100000}")
+    private int verifiedCacheMaxEntries;
+    
+    private Key signInKey;
+    private JwtParser parser;
+    
+    /**
+     * Tokens whose signature has already been checked, keyed by a digest of the token and kept
+     * until the token expires. A hit costs one SHA-256 instead of a signature check and JSON parse.
+     */
+    private final ConcurrentHashMap<TokenDigest, VerifiedToken> verified = new ConcurrentHashMap<>();
+    
+    /**
+     * @param role role name without the {@code ROLE_} prefix; null for tokens issued without one
+     */
+    public record VerifiedToken(String username, String role, long expiresAtMillis) {
+        
+        public boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+    
+    /**
+     * @param tokenId  unique id of this refresh token
+     * @param familyId shared by every token rotated from the same login
+     */
+    public record RefreshClaims(String username, String tokenId, String familyId, long expiresAtMillis) {
+    }
+    
+    private record TokenDigest(long high, long low) {
+    }
+    
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -36,8 +91,53 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * @return the verified subject and role, or null if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        TokenDigest digest = digest(token);
+        VerifiedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verified.remove(digest, cached);
+            return null;
+        }
+        
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null
+                || REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class))) {
+            return null;
+        }
+        VerifiedToken result = new VerifiedToken(
+                claims.getSubject(), claims.get(ROLE_CLAIM, String.class), claims.getExpiration().getTime());
+        if (verified.size() < verifiedCacheMaxEntries) {
+            verified.putIfAbsent(digest, result);
+        }
+        return result;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.jwt.verified-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        verified.values().removeIf(token -> token.isExpired(now));
+    }
+    
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .findFirst()
+                .ifPresent(authority -> claims.put(ROLE_CLAIM, authority.substring(ROLE_PREFIX.length())));
+        return generateToken(claims, userDetails);
     }
     
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -46,20 +146,53 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    /**
+     * Starts a new refresh token family, as on login.
+     */
     public String generateRefreshToken(UserDetails userDetails) {
+        return generateRefreshToken(userDetails, UUID.randomUUID().toString());
+    }
+    
+    public String generateRefreshToken(UserDetails userDetails, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(TYPE_CLAIM, REFRESH_TYPE);
+        claims.put(FAMILY_CLAIM, familyId);
         return Jwts.builder()
-                .setClaims(new HashMap<>())
+                .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
+    /**
+     * @return the claims of a correctly signed, unexpired refresh token, otherwise null
+     */
+    public RefreshClaims parseRefreshToken(String token) {
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        String familyId = claims.get(FAMILY_CLAIM, String.class);
+        if (!REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class)) || claims.getId() == null
+                || familyId == null || claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        return new RefreshClaims(claims.getSubject(), claims.getId(), familyId, claims.getExpiration().getTime());
+    }
+    
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+    
     public boolean isTokenValid(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
@@ -74,15 +207,16 @@ public class JwtService {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
     
-    private Key getSignInKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static TokenDigest digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
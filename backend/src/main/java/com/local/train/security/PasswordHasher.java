@@ -0,0 +1,118 @@
+// PasswordHasher.java
+package com.local.train.security;
+
+import com.local.train.exception.ServiceUnavailableException;
+import com.local.train.utils.Threads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs bcrypt on a small dedicated pool so login and registration storms cannot occupy every
+ * request thread.
+ *
+ * Work beyond {@code workers} running plus {@code queue-capacity} waiting is rejected at once with
+ * a 503 and Retry-After rather than queued behind the storm. Hashes made with a cost other than
+ * {@code app.security.password.bcrypt-strength} are re-encoded on the next successful login.
+ */
+@Component
+@RequiredArgsConstructor
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.security.password.bcrypt-strength:10}")
+    private int strength;
+
+    @Value("${app.security.password.workers:2}")
+    private int workerCount;
+
+    @Value("${app.security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.password.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private String dummyHash;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param upgradedHash a re-encoded hash to store, or null if the stored one is current
+     */
+    public record Verification(boolean matched, String upgradedHash) {
+    }
+
+    public record Stats(int workers, int active, int queued, int queueCapacity, long completed, long rejected) {
+    }
+
+    @PostConstruct
+    public void start() {
+        // Platform threads even in virtual-thread mode: bcrypt is CPU-bound and must stay capped
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Threads.factory("password-hasher-", false),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Compared against when the user does not exist, so unknown emails cost the same as known ones
+        dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * @param encodedPassword the stored hash, or null for an unknown user (never matches)
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            if (encodedPassword == null) {
+                passwordEncoder.matches(rawPassword, dummyHash);
+                return new Verification(false, null);
+            }
+            if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                return new Verification(false, null);
+            }
+            return new Verification(true, needsRehash(encodedPassword) ? passwordEncoder.encode(rawPassword) : null);
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(workerCount, executor.getActiveCount(), executor.getQueue().size(), queueCapacity,
+                executor.getCompletedTaskCount(), rejected.sum());
+    }
+
+    private boolean needsRehash(String encodedPassword) {
+        // $2a$10$... : the two digits after the version are the cost
+        if (encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many sign-in requests, please retry shortly", retryAfterSeconds);
+        }
+    }
+}
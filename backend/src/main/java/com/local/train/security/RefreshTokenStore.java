@@ -0,0 +1,120 @@
+// RefreshTokenStore.java
+package com.local.train.security;
+
+import com.local.train.entity.RevokedToken;
+import com.local.train.repository.RevokedTokenRepository;
+import com.local.train.security.JwtService.RefreshClaims;
+import com.local.train.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation state for refresh tokens, held in memory and written through to {@code revoked_tokens}.
+ *
+ * Every refresh token is single use: rotating it revokes its id. Presenting a token that was
+ * already rotated means it leaked, so its whole family (everything issued since that login) is
+ * revoked. Lookups hit a Bloom filter first and only consult the exact set on a possible match,
+ * so checks are constant time and never read the database; the table is only read at startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenStore {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtService jwtService;
+
+    @Value("${app.jwt.refresh-token.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${app.jwt.refresh-token.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /** Revoked token or family id to the epoch millis after which it can be forgotten. */
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+
+    @PostConstruct
+    public void load() {
+        bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            long expiresAt = token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            revoked.put(token.getTokenId(), expiresAt);
+            bloomFilter.put(token.getTokenId());
+        }
+        log.info("Loaded {} revoked refresh token ids", revoked.size());
+    }
+
+    public boolean isRevoked(RefreshClaims claims) {
+        return isRevoked(claims.familyId()) || isRevoked(claims.tokenId());
+    }
+
+    /**
+     * Consumes a refresh token so it cannot be used again.
+     *
+     * @return false if the token was already used or its family revoked; on reuse the family is
+     * revoked as well
+     */
+    public boolean rotate(RefreshClaims claims) {
+        if (isRevoked(claims.familyId())) {
+            return false;
+        }
+        if (!revoke(claims.tokenId(), claims.expiresAtMillis())) {
+            log.warn("Refresh token reuse for {}, revoking token family {}", claims.username(), claims.familyId());
+            revokeFamily(claims);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ends the login the token belongs to. Every token in the family expires within one refresh
+     * lifetime from now, so that is how long the family id is kept.
+     */
+    public void revokeFamily(RefreshClaims claims) {
+        revoke(claims.familyId(), System.currentTimeMillis() + jwtService.getRefreshExpiration());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-token.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+                return;
+            }
+            // Bloom filters cannot forget; rebuild from what is left
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            bloomFilter = rebuilt;
+        }
+        revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private boolean isRevoked(String id) {
+        return bloomFilter.mightContain(id) && revoked.containsKey(id);
+    }
+
+    private boolean revoke(String id, long expiresAtMillis) {
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(id, expiresAtMillis) != null) {
+                return false;
+            }
+            bloomFilter.put(id);
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(id)
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault()))
+                .build());
+        return true;
+    }
+}
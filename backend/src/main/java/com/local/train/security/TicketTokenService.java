@@ -0,0 +1,147 @@
+// TicketTokenService.java
+package com.local.train.security;
+
+import com.local.train.dto.TicketVerificationResponse;
+import com.local.train.entity.Booking;
+import com.local.train.entity.TravelClass;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Issues and verifies the signed ticket token printed in the ticket QR code.
+ *
+ * The token is a compact binary record, base64url encoded:
+ * <pre>
+ *   version(1) | pnrLength(1) | pnr(ASCII) | scheduleId(8) | journeyEpochDay(4) | class(1) | passengers(1) | mac(16)
+ * </pre>
+ * The MAC is HMAC-SHA256 truncated to 128 bits, keyed with a key derived from the JWT secret, so
+ * a scanner can verify a ticket with one hash and no database access. Revocation (cancellation)
+ * is not visible offline; scanners that need it still look the PNR up.
+ */
+@Service
+public class TicketTokenService {
+
+    private static final byte VERSION = 1;
+    private static final int MAC_LENGTH = 16;
+    private static final int MAX_PNR_LENGTH = 32;
+    private static final int FIXED_LENGTH = 1 + 1 + 8 + 4 + 1 + 1 + MAC_LENGTH;
+    private static final TravelClass[] CLASSES = TravelClass.values();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+
+    public TicketTokenService(@Value("${app.jwt.secret}") String secret) {
+        byte[] key = deriveKey(secret.getBytes(StandardCharsets.UTF_8));
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    public String issue(Booking booking) {
+        byte[] pnr = booking.getPnrNumber().getBytes(StandardCharsets.US_ASCII);
+        if (pnr.length > MAX_PNR_LENGTH) {
+            throw new IllegalArgumentException("PNR too long for ticket token: " + booking.getPnrNumber());
+        }
+        int passengers = booking.getPassengers() != null ? booking.getPassengers().size() : 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_LENGTH + pnr.length);
+        buffer.put(VERSION)
+                .put((byte) pnr.length)
+                .put(pnr)
+                .putLong(booking.getSchedule().getId())
+                .putInt((int) booking.getJourneyDate().toLocalDate().toEpochDay())
+                .put((byte) booking.getTravelClass().ordinal())
+                .put((byte) Math.min(passengers, 255));
+        byte[] token = buffer.array();
+        sign(token, buffer.position());
+        return ENCODER.encodeToString(token);
+    }
+
+    public TicketVerificationResponse verify(String encoded) {
+        return verify(encoded, LocalDate.now());
+    }
+
+    TicketVerificationResponse verify(String encoded, LocalDate today) {
+        byte[] token;
+        try {
+            token = DECODER.decode(encoded.trim());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return rejected("MALFORMED");
+        }
+        if (token.length < FIXED_LENGTH || token[0] != VERSION) {
+            return rejected("MALFORMED");
+        }
+        int pnrLength = token[1] & 0xff;
+        if (token.length != FIXED_LENGTH + pnrLength) {
+            return rejected("MALFORMED");
+        }
+
+        int signedLength = token.length - MAC_LENGTH;
+        byte[] expected = mac(token, signedLength);
+        if (!MessageDigest.isEqual(Arrays.copyOf(expected, MAC_LENGTH),
+                Arrays.copyOfRange(token, signedLength, token.length))) {
+            return rejected("BAD_SIGNATURE");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(token, 2 + pnrLength, signedLength - 2 - pnrLength);
+        long scheduleId = buffer.getLong();
+        LocalDate journeyDate = LocalDate.ofEpochDay(buffer.getInt());
+        int classOrdinal = buffer.get() & 0xff;
+        int passengers = buffer.get() & 0xff;
+        if (classOrdinal >= CLASSES.length) {
+            return rejected("MALFORMED");
+        }
+
+        boolean expired = journeyDate.isBefore(today);
+        return TicketVerificationResponse.builder()
+                .valid(!expired)
+                .reason(expired ? "EXPIRED" : null)
+                .pnrNumber(new String(token, 2, pnrLength, StandardCharsets.US_ASCII))
+                .scheduleId(scheduleId)
+                .journeyDate(journeyDate)
+                .travelClass(CLASSES[classOrdinal])
+                .passengerCount(passengers)
+                .build();
+    }
+
+    private void sign(byte[] token, int signedLength) {
+        System.arraycopy(mac(token, signedLength), 0, token, signedLength, MAC_LENGTH);
+    }
+
+    private byte[] mac(byte[] token, int length) {
+        Mac mac = macs.get();
+        mac.update(token, 0, length);
+        return mac.doFinal();
+    }
+
+    private static TicketVerificationResponse rejected(String reason) {
+        return TicketVerificationResponse.builder().valid(false).reason(reason).build();
+    }
+
+    /**
+     * Separate key for ticket tokens so a MAC can never be replayed as a JWT signature.
+     */
+    private static byte[] deriveKey(byte[] secret) {
+        Mac mac = newMac(secret);
+        return mac.doFinal("ticket-token-v1".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac newMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
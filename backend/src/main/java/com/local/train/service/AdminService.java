@@ -3,15 +3,27 @@ package com.local.train.service;
 
 import com.local.train.dto.*;
 import com.local.train.entity.*;
+import com.local.train.event.FareDataChangedEvent;
+import com.local.train.event.ScheduleChangedEvent;
 import com.local.train.repository.*;
 import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.utils.Money;
+import com.local.train.utils.ReportExportWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +34,12 @@ public class AdminService {
     private final TrainRepository trainRepository;
     private final BookingRepository bookingRepository;
     private final TransactionRepository transactionRepository;
+    private final StationFareRepository stationFareRepository;
+    private final ReportingService reportingService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.reports.max-page-size:1000}")
+    private int maxPageSize;
     
     @Transactional
     public TrainSchedule createSchedule(ScheduleRequest request) {
@@ -44,13 +62,18 @@ public class AdminService {
         schedule.setAvailableSeats(request.getTotalSeats());
         schedule.setOperatingDays(request.getOperatingDays());
         
-        return scheduleRepository.save(schedule);
+        TrainSchedule saved = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(saved.getId(), null, null,
+                source.getId(), destination.getId()));
+        return saved;
     }
     
     @Transactional
     public TrainSchedule updateSchedule(Long scheduleId, ScheduleRequest request) {
         TrainSchedule schedule = scheduleRepository.findById(scheduleId)
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
+        Long previousSourceId = schedule.getSourceStation().getId();
+        Long previousDestinationId = schedule.getDestinationStation().getId();
         
         final Long trainId = request.getTrainId();
         if (trainId != null) {
@@ -82,15 +105,19 @@ public class AdminService {
         }
         if (request.getOperatingDays() != null) schedule.setOperatingDays(request.getOperatingDays());
         
-        return scheduleRepository.save(schedule);
+        TrainSchedule saved = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId, previousSourceId, previousDestinationId,
+                saved.getSourceStation().getId(), saved.getDestinationStation().getId()));
+        return saved;
     }
     
     @Transactional
     public void deleteSchedule(Long scheduleId) {
-        if (!scheduleRepository.existsById(scheduleId)) {
-            throw new ResourceNotFoundException("Schedule not found");
-        }
-        scheduleRepository.deleteById(scheduleId);
+        TrainSchedule schedule = scheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
+        scheduleRepository.delete(schedule);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId,
+                schedule.getSourceStation().getId(), schedule.getDestinationStation().getId(), null, null));
     }
     
     @Transactional
@@ -101,98 +128,144 @@ public class AdminService {
         station.setCity(request.getCity());
         station.setState(request.getState());
         
-        return stationRepository.save(station);
+        Station saved = stationRepository.save(station);
+        eventPublisher.publishEvent(new FareDataChangedEvent());
+        return saved;
+    }
+    
+    @Transactional
+    public StationFare setStationFare(StationFareRequest request) {
+        if (!stationRepository.existsById(request.getSourceStationId())) {
+            throw new ResourceNotFoundException("Source station not found");
+        }
+        if (!stationRepository.existsById(request.getDestinationStationId())) {
+            throw new ResourceNotFoundException("Destination station not found");
+        }
+        
+        StationFare fare = upsertStationFare(request.getSourceStationId(), request.getDestinationStationId(), request);
+        if (request.isBidirectional()) {
+            upsertStationFare(request.getDestinationStationId(), request.getSourceStationId(), request);
+        }
+        eventPublisher.publishEvent(new FareDataChangedEvent());
+        return fare;
+    }
+    
+    private StationFare upsertStationFare(Long sourceId, Long destinationId, StationFareRequest request) {
+        StationFare fare = stationFareRepository.findBySourceStationIdAndDestinationStationId(sourceId, destinationId)
+                .orElseGet(() -> StationFare.builder()
+                        .sourceStationId(sourceId)
+                        .destinationStationId(destinationId)
+                        .build());
+        fare.setDistanceKm(request.getDistanceKm());
+        fare.setBaseFare(request.getBaseFare() != null ? Money.ofRupees(request.getBaseFare()) : null);
+        return stationFareRepository.save(fare);
     }
 
     public List<Station> getAllStations() {
         return stationRepository.findAll();
     }
     
-    public List<BookingResponse> getBookingReport(LocalDate startDate, LocalDate endDate) {
-        List<Booking> bookings;
-        if (startDate != null && endDate != null) {
-            bookings = bookingRepository.findByBookingDateBetween(
-                    startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        } else {
-            bookings = bookingRepository.findAll();
+    /**
+     * Keyset page of bookings made in the date range, oldest first.
+     *
+     * @param cursor null for the first page, otherwise {@link ReportPage#nextCursor()} of the previous page
+     */
+    public ReportPage<BookingReportRow> getBookingReport(LocalDate startDate, LocalDate endDate,
+                                                         String cursor, int limit) {
+        Position after = cursor != null ? Position.decode(cursor) : new Position(rangeStart(startDate), 0L);
+        int size = pageSize(limit);
+        List<BookingReportRow> rows = bookingRepository.findReportPage(
+                after.at(), after.id(), rangeEnd(endDate), Limit.of(size));
+        BookingReportRow last = rows.size() == size ? rows.get(rows.size() - 1) : null;
+        return new ReportPage<>(rows, last != null ? new Position(last.bookingDate(), last.id()).encode() : null);
+    }
+    
+    /**
+     * Streams every booking in the date range to {@code out} from a forward-only cursor. Holds one
+     * pooled connection until the export finishes.
+     */
+    @Transactional(readOnly = true)
+    public void exportBookings(LocalDate startDate, LocalDate endDate,
+                               ReportExportWriter<BookingReportRow> out) throws IOException {
+        try (Stream<BookingReportRow> rows = bookingRepository.streamReport(rangeStart(startDate), rangeEnd(endDate))) {
+            Iterator<BookingReportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                out.write(iterator.next());
+            }
         }
-        
-        return bookings.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
     }
     
     public RevenueReport getRevenueReport(LocalDate startDate, LocalDate endDate) {
-        List<Booking> bookings;
-        if (startDate != null && endDate != null) {
-            bookings = bookingRepository.findByBookingDateBetween(
-                    startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        } else {
-            bookings = bookingRepository.findAll();
+        return reportingService.revenueReport(startDate, endDate);
+    }
+    
+    public List<DailyBookingSummary> getBookingSummary(LocalDate startDate, LocalDate endDate) {
+        return reportingService.bookingSummary(startDate, endDate);
+    }
+    
+    public List<RevenueGroup> getRevenueBreakdown(ReportingService.Dimension dimension,
+                                                  LocalDate startDate, LocalDate endDate) {
+        return reportingService.revenueBy(dimension, startDate, endDate);
+    }
+    
+    /**
+     * Keyset page of transactions created in the date range, oldest first.
+     *
+     * @param cursor null for the first page, otherwise {@link ReportPage#nextCursor()} of the previous page
+     */
+    public ReportPage<TransactionReportRow> getTransactionReport(LocalDate startDate, LocalDate endDate,
+                                                                 String cursor, int limit) {
+        Position after = cursor != null ? Position.decode(cursor) : new Position(rangeStart(startDate), 0L);
+        int size = pageSize(limit);
+        List<TransactionReportRow> rows = transactionRepository.findReportPage(
+                after.at(), after.id(), rangeEnd(endDate), Limit.of(size));
+        TransactionReportRow last = rows.size() == size ? rows.get(rows.size() - 1) : null;
+        return new ReportPage<>(rows, last != null ? new Position(last.createdAt(), last.id()).encode() : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportTransactions(LocalDate startDate, LocalDate endDate,
+                                   ReportExportWriter<TransactionReportRow> out) throws IOException {
+        try (Stream<TransactionReportRow> rows =
+                     transactionRepository.streamReport(rangeStart(startDate), rangeEnd(endDate))) {
+            Iterator<TransactionReportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                out.write(iterator.next());
+            }
         }
+    }
+    
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+    
+    private static LocalDateTime rangeStart(LocalDate startDate) {
+        return (startDate != null ? startDate : LocalDate.EPOCH).atStartOfDay();
+    }
+    
+    private static LocalDateTime rangeEnd(LocalDate endDate) {
+        return endDate != null ? endDate.plusDays(1).atStartOfDay() : LocalDateTime.of(9999, 12, 31, 0, 0);
+    }
+    
+    /**
+     * Sort key of the last row on a page, handed to clients as an opaque base64url cursor.
+     */
+    private record Position(LocalDateTime at, Long id) {
         
-        double totalRevenue = bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .mapToDouble(Booking::getTotalFare)
-                .sum();
-        
-        long totalBookings = bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .count();
-        
-        long cancelledBookings = bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CANCELLED)
-                .count();
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((at + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
         
-        return RevenueReport.builder()
-                .totalRevenue(totalRevenue)
-                .totalBookings((int) totalBookings)
-                .cancelledBookings((int) cancelledBookings)
-                .startDate(startDate)
-                .endDate(endDate)
-                .build();
-    }
-    
-    public List<TransactionResponse> getTransactionReport(LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions;
-        if (startDate != null && endDate != null) {
-            transactions = transactionRepository.findByCreatedAtBetween(
-                    startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        } else {
-            transactions = transactionRepository.findAll();
+        static Position decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf('|');
+                return new Position(LocalDateTime.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
         }
-
-        return transactions.stream()
-                .map(this::convertTransactionToResponse)
-                .collect(Collectors.toList());
-    }
-
-    private BookingResponse convertToResponse(Booking booking) {
-        return BookingResponse.builder()
-                .id(booking.getId())
-                .pnrNumber(booking.getPnrNumber())
-                .journeyDate(booking.getJourneyDate().toLocalDate())
-                .sourceStation(booking.getSchedule().getSourceStation().getStationName())
-                .destinationStation(booking.getSchedule().getDestinationStation().getStationName())
-                .trainName(booking.getSchedule().getTrain().getTrainName())
-                .travelClass(booking.getTravelClass().name())
-                .bookingDate(booking.getBookingDate().toLocalDate())
-                .totalFare(booking.getTotalFare())
-                .status(booking.getStatus())
-                .passengerCount(booking.getPassengers().size())
-                .ticketPath(booking.getTicketPath())
-                .build();
-    }
-
-    private TransactionResponse convertTransactionToResponse(Transaction transaction) {
-        return TransactionResponse.builder()
-                .transactionId(transaction.getTransactionId())
-                .amount(transaction.getAmount())
-                .type(transaction.getType())
-                .method(transaction.getMethod())
-                .status(transaction.getStatus())
-                .createdAt(transaction.getCreatedAt())
-                .description(transaction.getDescription())
-                .build();
     }
 }
@@ -0,0 +1,294 @@
+// AnalyticsSnapshotService.java
+package com.local.train.service;
+
+import com.local.train.entity.BookingStatus;
+import com.local.train.exception.ServiceUnavailableException;
+import com.local.train.utils.ColumnarFile;
+import com.local.train.utils.ColumnarFile.DictionaryColumn;
+import com.local.train.utils.ColumnarFile.IntColumn;
+import com.local.train.utils.ColumnarFile.LongColumn;
+import com.local.train.utils.ColumnarFile.Table;
+import com.local.train.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Time;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Exports booking, passenger and transaction facts into {@link ColumnarFile}s under
+ * {@code app.analytics.storage-path} and serves ad-hoc admin analytics from them in process.
+ *
+ * The export is a single forward-only read of each table, streamed row by row, nightly and on
+ * demand; analytics queries after that never touch the database. Passenger facts are folded into
+ * the booking table as a per-booking count. Enum columns are dictionary-encoded with the stored
+ * names, so snapshots stay readable when an enum changes. Each export goes to a fresh directory and becomes
+ * current by atomically replacing the {@code CURRENT} pointer, so a crash mid-export leaves the
+ * previous snapshot in place.
+ */
+@Slf4j
+@Service
+public class AnalyticsSnapshotService {
+
+    private static final String CURRENT = "CURRENT";
+    private static final String BOOKINGS_FILE = "bookings.ltc";
+    private static final String ROUTES_FILE = "routes.ltc";
+    private static final String TRANSACTIONS_FILE = "transactions.ltc";
+    private static final DateTimeFormatter DIRECTORY_NAME = DateTimeFormatter.ofPattern("'snapshot-'yyyyMMdd'T'HHmmss");
+
+    private static final String BOOKING_FACTS =
+            "SELECT b.booking_date, b.travel_class, b.status, b.total_fare, s.departure_time, " +
+            "s.source_station_id, s.destination_station_id, " +
+            "(SELECT COUNT(*) FROM passengers p WHERE p.booking_id = b.id) AS passengers " +
+            "FROM bookings b JOIN train_schedules s ON s.id = b.schedule_id " +
+            "WHERE b.booking_date IS NOT NULL AND b.travel_class IS NOT NULL " +
+            "ORDER BY b.booking_date, b.id";
+    private static final String TRANSACTION_FACTS =
+            "SELECT created_at, type, method, status, amount FROM transactions ORDER BY created_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final Path root;
+    private final long retryAfterSeconds;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile BookingAnalytics current;
+
+    public AnalyticsSnapshotService(JdbcTemplate jdbcTemplate,
+                                    @Value("${app.analytics.storage-path:./analytics}") String storagePath,
+                                    @Value("${app.analytics.retry-after-seconds:60}") long retryAfterSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.root = Paths.get(storagePath).toAbsolutePath().normalize();
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @throws ServiceUnavailableException until the first snapshot has been loaded or built
+     */
+    public BookingAnalytics current() {
+        BookingAnalytics analytics = current;
+        if (analytics == null) {
+            throw new ServiceUnavailableException("Analytics snapshot is being built, please retry later",
+                    retryAfterSeconds);
+        }
+        return analytics;
+    }
+
+    /**
+     * Runs off the startup thread: a missing or unreadable snapshot is rebuilt in the background
+     * while {@link #current()} keeps answering 503, and a failed build never aborts startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOrBuild() {
+        try {
+            Path pointer = root.resolve(CURRENT);
+            if (Files.exists(pointer)) {
+                Path directory = root.resolve(Files.readString(pointer, StandardCharsets.UTF_8).trim());
+                current = load(directory, LocalDateTime.parse(directory.getFileName().toString(), DIRECTORY_NAME));
+                log.info("Loaded analytics snapshot {} ({} bookings)", directory.getFileName(),
+                        current.info().bookings());
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load analytics snapshot, rebuilding: {}", e.getMessage());
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Initial analytics snapshot build failed; retrying at the next scheduled refresh", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.analytics.refresh-cron:0 0 2 * * *}")
+    public void nightlyRefresh() {
+        refresh();
+    }
+
+    /**
+     * Exports fresh facts and swaps them in; concurrent calls wait for the running export.
+     */
+    public BookingAnalytics.Info refresh() {
+        refreshLock.lock();
+        try {
+            LocalDateTime builtAt = LocalDateTime.now().withNano(0);
+            Path directory = root.resolve(DIRECTORY_NAME.format(builtAt));
+            Files.createDirectories(directory);
+
+            Table[] bookings = exportBookings();
+            Table transactions = exportTransactions();
+            ColumnarFile.write(directory.resolve(BOOKINGS_FILE), bookings[0]);
+            ColumnarFile.write(directory.resolve(ROUTES_FILE), bookings[1]);
+            ColumnarFile.write(directory.resolve(TRANSACTIONS_FILE), transactions);
+
+            Path pointer = Files.createTempFile(root, "current-", ".tmp");
+            Files.writeString(pointer, directory.getFileName().toString(), StandardCharsets.UTF_8);
+            Files.move(pointer, root.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            current = new BookingAnalytics(builtAt, bookings[0], bookings[1], transactions, stationCodes());
+            deleteOlderThan(directory);
+            log.info("Built analytics snapshot {} ({} bookings, {} transactions)", directory.getFileName(),
+                    bookings[0].rows(), transactions.rows());
+            return current.info();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write analytics snapshot", e);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * @return the booking fact table and the route dictionary its {@code route} column indexes
+     */
+    private Table[] exportBookings() {
+        IntColumn day = new IntColumn();
+        IntColumn bookingHour = new IntColumn();
+        IntColumn departureHour = new IntColumn();
+        IntColumn route = new IntColumn();
+        DictionaryColumn travelClass = new DictionaryColumn();
+        DictionaryColumn status = new DictionaryColumn();
+        IntColumn passengers = new IntColumn();
+        LongColumn fare = new LongColumn();
+        Map<Route, Integer> routes = new LinkedHashMap<>();
+
+        streamingJdbcTemplate.query(BOOKING_FACTS, rs -> {
+            LocalDateTime bookedAt = rs.getTimestamp("booking_date").toLocalDateTime();
+            Time departure = rs.getTime("departure_time");
+            String bookingStatus = rs.getString("status");
+            Route key = new Route(rs.getLong("source_station_id"), rs.getLong("destination_station_id"));
+            day.add((int) bookedAt.toLocalDate().toEpochDay());
+            bookingHour.add(bookedAt.getHour());
+            departureHour.add(departure != null ? departure.toLocalTime().getHour() : BookingAnalytics.UNKNOWN_HOUR);
+            route.add(routes.computeIfAbsent(key, ignored -> routes.size()));
+            travelClass.add(rs.getString("travel_class"));
+            status.add(bookingStatus != null ? bookingStatus : BookingStatus.PENDING.name());
+            passengers.add(rs.getInt("passengers"));
+            fare.add(Money.ofDecimal(rs.getBigDecimal("total_fare")));
+        });
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put(BookingAnalytics.DAY, day.toArray());
+        columns.put(BookingAnalytics.BOOKING_HOUR, bookingHour.toArray());
+        columns.put(BookingAnalytics.DEPARTURE_HOUR, departureHour.toArray());
+        columns.put(BookingAnalytics.ROUTE, route.toArray());
+        columns.put(BookingAnalytics.TRAVEL_CLASS, travelClass.toArray());
+        columns.put(BookingAnalytics.STATUS, status.toArray());
+        columns.put(BookingAnalytics.PASSENGERS, passengers.toArray());
+        columns.put(BookingAnalytics.FARE, fare.toArray());
+        Map<String, List<String>> dictionaries = Map.of(
+                BookingAnalytics.TRAVEL_CLASS, travelClass.labels(),
+                BookingAnalytics.STATUS, status.labels());
+        Table bookings = new Table(((int[]) columns.get(BookingAnalytics.DAY)).length, columns, dictionaries);
+
+        long[] sources = new long[routes.size()];
+        long[] destinations = new long[routes.size()];
+        routes.forEach((key, code) -> {
+            sources[code] = key.source();
+            destinations[code] = key.destination();
+        });
+        Map<String, Object> routeColumns = new LinkedHashMap<>();
+        routeColumns.put(BookingAnalytics.SOURCE_STATION, sources);
+        routeColumns.put(BookingAnalytics.DESTINATION_STATION, destinations);
+        return new Table[]{bookings, new Table(routes.size(), routeColumns)};
+    }
+
+    private Table exportTransactions() {
+        IntColumn day = new IntColumn();
+        IntColumn hour = new IntColumn();
+        DictionaryColumn type = new DictionaryColumn();
+        DictionaryColumn method = new DictionaryColumn();
+        DictionaryColumn status = new DictionaryColumn();
+        LongColumn amount = new LongColumn();
+
+        streamingJdbcTemplate.query(TRANSACTION_FACTS, rs -> {
+            LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
+            day.add((int) createdAt.toLocalDate().toEpochDay());
+            hour.add(createdAt.getHour());
+            type.add(rs.getString("type"));
+            method.add(rs.getString("method"));
+            status.add(rs.getString("status"));
+            amount.add(Money.ofDecimal(rs.getBigDecimal("amount")));
+        });
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put(BookingAnalytics.DAY, day.toArray());
+        columns.put(BookingAnalytics.HOUR, hour.toArray());
+        columns.put(BookingAnalytics.TYPE, type.toArray());
+        columns.put(BookingAnalytics.METHOD, method.toArray());
+        columns.put(BookingAnalytics.STATUS, status.toArray());
+        columns.put(BookingAnalytics.AMOUNT, amount.toArray());
+        Map<String, List<String>> dictionaries = Map.of(
+                BookingAnalytics.TYPE, type.labels(),
+                BookingAnalytics.METHOD, method.labels(),
+                BookingAnalytics.STATUS, status.labels());
+        return new Table(((int[]) columns.get(BookingAnalytics.DAY)).length, columns, dictionaries);
+    }
+
+    private BookingAnalytics load(Path directory, LocalDateTime builtAt) throws IOException {
+        return new BookingAnalytics(builtAt,
+                ColumnarFile.read(directory.resolve(BOOKINGS_FILE)),
+                ColumnarFile.read(directory.resolve(ROUTES_FILE)),
+                ColumnarFile.read(directory.resolve(TRANSACTIONS_FILE)),
+                stationCodes());
+    }
+
+    private Map<Long, String> stationCodes() {
+        Map<Long, String> codes = new HashMap<>();
+        jdbcTemplate.query("SELECT id, station_code FROM stations", rs -> {
+            codes.put(rs.getLong("id"), rs.getString("station_code"));
+        });
+        return codes;
+    }
+
+    private void deleteOlderThan(Path keep) {
+        try (Stream<Path> entries = Files.list(root)) {
+            entries.filter(path -> Files.isDirectory(path) && !path.equals(keep)
+                            && path.getFileName().toString().startsWith("snapshot-"))
+                    .forEach(this::deleteDirectory);
+        } catch (IOException e) {
+            log.warn("Could not list old analytics snapshots: {}", e.getMessage());
+        }
+    }
+
+    private void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not delete old analytics snapshot {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private record Route(long source, long destination) {
+    }
+}
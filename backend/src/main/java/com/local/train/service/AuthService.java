@@ -8,26 +8,41 @@ import com.local.train.entity.Wallet;
 import com.local.train.exception.ResourceNotFoundException;
 import com.local.train.repository.UserRepository;
 import com.local.train.security.JwtService;
+import com.local.train.security.PasswordHasher;
+import com.local.train.security.RefreshTokenStore;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final UserCache userCache;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TransactionTemplate transactionTemplate;
+    // Resolved by name: database work after hashing runs here, never on the capped bcrypt pool
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    
+    public CompletableFuture<AuthResponse> register(RegisterRequest request) {
+        return passwordHasher.encode(request.getPassword())
+                .thenApplyAsync(encoded -> transactionTemplate.execute(status -> register(request, encoded)),
+                        applicationTaskExecutor);
+    }
     
-    public AuthResponse register(RegisterRequest request) {
+    private AuthResponse register(RegisterRequest request, String encodedPassword) {
         var user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(encodedPassword)
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .phoneNumber(request.getPhoneNumber())
@@ -56,45 +71,68 @@ public class AuthService {
                 .build();
     }
     
-    public TokenResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow();
-        
+    /**
+     * Password check runs on the {@link PasswordHasher} pool; the request thread is released meanwhile.
+     * The hash upgrade and token issuing then continue on the application task executor.
+     */
+    public CompletableFuture<TokenResponse> login(LoginRequest request) {
+        UserPrincipal user = userCache.find(request.getEmail()).orElse(null);
+        return passwordHasher.verify(request.getPassword(), user != null ? user.password() : null)
+                .thenApplyAsync(verification -> {
+                    if (!verification.matched()) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    if (verification.upgradedHash() != null) {
+                        upgradePassword(user.id(), verification.upgradedHash());
+                    }
+                    return issueTokens(user);
+                }, applicationTaskExecutor);
+    }
+    
+    private void upgradePassword(Long userId, String encodedPassword) {
+        // Saved through the entity so the user cache is evicted
+        userRepository.findById(userId).ifPresent(user -> {
+            user.setPassword(encodedPassword);
+            userRepository.save(user);
+        });
+    }
+    
+    private TokenResponse issueTokens(UserPrincipal user) {
+        return issueTokens(user, UUID.randomUUID().toString());
+    }
+    
+    private TokenResponse issueTokens(UserPrincipal user, String familyId) {
         UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .roles(user.getRole().name())
+                .username(user.email())
+                .password(user.password())
+                .roles(user.role().name())
                 .build();
         var jwtToken = jwtService.generateToken(userDetails);
-        var refreshToken = jwtService.generateRefreshToken(userDetails);
+        var refreshToken = jwtService.generateRefreshToken(userDetails, familyId);
         return TokenResponse.builder()
                 .accessToken(jwtToken)
                 .refreshToken(refreshToken)
                 .build();
     }
 
-    public AuthResponse refreshToken(RefreshTokenRequest request) {
-        final String username = jwtService.extractUsername(request.getToken());
-        if (username != null) {
-            var user = userRepository.findByEmail(username)
-                    .orElseThrow();
-            
-            UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                    .username(user.getEmail())
-                    .password(user.getPassword())
-                    .roles(user.getRole().name())
-                    .build();
-            if (jwtService.isTokenValid(request.getToken(), userDetails)) {
-                var jwtToken = jwtService.generateToken(userDetails);
-                return AuthResponse.builder()
-                        .token(jwtToken)
-                        .userId(user.getId())
-                        .build();
-            }
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token in the same family.
+     * The presented token is consumed; presenting it again revokes the family.
+     */
+    public TokenResponse refreshToken(RefreshTokenRequest request) {
+        JwtService.RefreshClaims claims = jwtService.parseRefreshToken(request.getToken());
+        if (claims == null || !refreshTokenStore.rotate(claims)) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        UserPrincipal user = userCache.find(claims.username())
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        return issueTokens(user, claims.familyId());
+    }
+    
+    public void logout(RefreshTokenRequest request) {
+        JwtService.RefreshClaims claims = jwtService.parseRefreshToken(request.getToken());
+        if (claims != null) {
+            refreshTokenStore.revokeFamily(claims);
         }
-        throw new RuntimeException("Invalid refresh token");
     }
-}
\ No newline at end of file
+}
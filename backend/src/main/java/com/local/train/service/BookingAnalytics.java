@@ -0,0 +1,254 @@
+// BookingAnalytics.java
+package com.local.train.service;
+
+import com.local.train.dto.AnalyticsGroup;
+import com.local.train.dto.PaymentGroup;
+import com.local.train.entity.BookingStatus;
+import com.local.train.utils.ColumnarFile.Table;
+import com.local.train.utils.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable, in-memory view of one analytics snapshot written by {@link AnalyticsSnapshotService}.
+ *
+ * Facts are held column-wise in primitive arrays with rows sorted by day, so a date filter is two
+ * binary searches and every query is a single pass over a contiguous slice that scatters into
+ * per-group accumulator arrays. Group keys are small dense codes (hour, or an index into the route
+ * or enum-name dictionary stored with the snapshot), so no hashing happens per row. Nothing here touches the database.
+ */
+public final class BookingAnalytics {
+
+    static final String DAY = "day";
+    static final String BOOKING_HOUR = "booking_hour";
+    static final String DEPARTURE_HOUR = "departure_hour";
+    static final String ROUTE = "route";
+    static final String TRAVEL_CLASS = "travel_class";
+    static final String STATUS = "status";
+    static final String FARE = "fare";
+    static final String PASSENGERS = "passengers";
+    static final String SOURCE_STATION = "source_station";
+    static final String DESTINATION_STATION = "destination_station";
+    static final String HOUR = "hour";
+    static final String TYPE = "type";
+    static final String METHOD = "method";
+    static final String AMOUNT = "amount";
+
+    /**
+     * Hour code used when a schedule has no departure time.
+     */
+    static final int UNKNOWN_HOUR = 24;
+
+    public enum Dimension {
+        BOOKING_HOUR, DEPARTURE_HOUR, DAY, ROUTE, CLASS
+    }
+
+    public enum PaymentDimension {
+        METHOD, TYPE, STATUS, HOUR
+    }
+
+    /**
+     * @param builtAt when the facts were read from the database
+     */
+    public record Info(LocalDateTime builtAt, int bookings, int transactions) {
+    }
+
+    private final LocalDateTime builtAt;
+
+    private final int bookingCount;
+    private final int[] bookingDay;
+    private final int[] bookingHour;
+    private final int[] departureHour;
+    private final int[] route;
+    private final int[] travelClass;
+    private final List<String> travelClassLabels;
+    private final int[] cancelled;
+    private final int[] passengers;
+    private final long[] fare;
+
+    private final String[] routeLabels;
+
+    private final int transactionCount;
+    private final int[] transactionDay;
+    private final int[] transactionHour;
+    private final int[] transactionType;
+    private final int[] transactionMethod;
+    private final int[] transactionStatus;
+    private final List<String> typeLabels;
+    private final List<String> methodLabels;
+    private final List<String> statusLabels;
+    private final long[] amount;
+
+    /**
+     * @param stationCodes station id to code, used to label routes
+     */
+    BookingAnalytics(LocalDateTime builtAt, Table bookings, Table routes, Table transactions,
+                     Map<Long, String> stationCodes) {
+        this.builtAt = builtAt;
+
+        bookingCount = bookings.rows();
+        bookingDay = bookings.ints(DAY);
+        bookingHour = bookings.ints(BOOKING_HOUR);
+        departureHour = bookings.ints(DEPARTURE_HOUR);
+        route = bookings.ints(ROUTE);
+        travelClass = bookings.ints(TRAVEL_CLASS);
+        travelClassLabels = bookings.labels(TRAVEL_CLASS);
+        passengers = bookings.ints(PASSENGERS);
+        fare = bookings.longs(FARE);
+        int[] status = bookings.ints(STATUS);
+        cancelled = new int[bookingCount];
+        int cancelledCode = bookings.labels(STATUS).indexOf(BookingStatus.CANCELLED.name());
+        for (int i = 0; i < bookingCount; i++) {
+            cancelled[i] = status[i] == cancelledCode ? 1 : 0;
+        }
+
+        long[] sources = routes.longs(SOURCE_STATION);
+        long[] destinations = routes.longs(DESTINATION_STATION);
+        routeLabels = new String[routes.rows()];
+        for (int i = 0; i < routeLabels.length; i++) {
+            routeLabels[i] = stationCodes.getOrDefault(sources[i], String.valueOf(sources[i])) + "-"
+                    + stationCodes.getOrDefault(destinations[i], String.valueOf(destinations[i]));
+        }
+
+        transactionCount = transactions.rows();
+        transactionDay = transactions.ints(DAY);
+        transactionHour = transactions.ints(HOUR);
+        transactionType = transactions.ints(TYPE);
+        transactionMethod = transactions.ints(METHOD);
+        transactionStatus = transactions.ints(STATUS);
+        typeLabels = transactions.labels(TYPE);
+        methodLabels = transactions.labels(METHOD);
+        statusLabels = transactions.labels(STATUS);
+        amount = transactions.longs(AMOUNT);
+    }
+
+    public Info info() {
+        return new Info(builtAt, bookingCount, transactionCount);
+    }
+
+    /**
+     * Bookings made in the date range grouped by {@code dimension}: peak hours, daily volume,
+     * route popularity (most seats sold first) or class mix, each with its cancellation rate.
+     * Either bound may be null.
+     */
+    public List<AnalyticsGroup> bookings(Dimension dimension, LocalDate startDate, LocalDate endDate) {
+        int from = lowerBound(bookingDay, bookingCount, startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE);
+        int to = endDate != null ? lowerBound(bookingDay, bookingCount, (int) endDate.toEpochDay() + 1) : bookingCount;
+        if (from >= to) {
+            return List.of();
+        }
+        int firstDay = bookingDay[from];
+        List<AnalyticsGroup> groups = switch (dimension) {
+            case BOOKING_HOUR -> groupBookings(bookingHour, 0, UNKNOWN_HOUR + 1, from, to, BookingAnalytics::hourLabel);
+            case DEPARTURE_HOUR -> groupBookings(departureHour, 0, UNKNOWN_HOUR + 1, from, to, BookingAnalytics::hourLabel);
+            case DAY -> groupBookings(bookingDay, firstDay, bookingDay[to - 1] - firstDay + 1, from, to,
+                    code -> LocalDate.ofEpochDay(firstDay + code).toString());
+            case ROUTE -> groupBookings(route, 0, routeLabels.length, from, to, code -> routeLabels[code]);
+            case CLASS -> groupBookings(travelClass, 0, travelClassLabels.size(), from, to, travelClassLabels::get);
+        };
+        if (dimension == Dimension.ROUTE) {
+            groups.sort(Comparator.comparing(AnalyticsGroup::getSeatsSold).reversed());
+        }
+        return groups;
+    }
+
+    /**
+     * Transactions created in the date range grouped by {@code dimension}. Either bound may be null.
+     */
+    public List<PaymentGroup> payments(PaymentDimension dimension, LocalDate startDate, LocalDate endDate) {
+        int from = lowerBound(transactionDay, transactionCount,
+                startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE);
+        int to = endDate != null
+                ? lowerBound(transactionDay, transactionCount, (int) endDate.toEpochDay() + 1) : transactionCount;
+        return switch (dimension) {
+            case METHOD -> groupPayments(transactionMethod, methodLabels.size(), from, to, methodLabels::get);
+            case TYPE -> groupPayments(transactionType, typeLabels.size(), from, to, typeLabels::get);
+            case STATUS -> groupPayments(transactionStatus, statusLabels.size(), from, to, statusLabels::get);
+            case HOUR -> groupPayments(transactionHour, UNKNOWN_HOUR, from, to, BookingAnalytics::hourLabel);
+        };
+    }
+
+    private List<AnalyticsGroup> groupBookings(int[] keys, int offset, int groupCount, int from, int to,
+                                               IntFunction<String> label) {
+        long[] count = new long[groupCount];
+        long[] cancelledCount = new long[groupCount];
+        long[] seats = new long[groupCount];
+        long[] revenue = new long[groupCount];
+        long[] refunds = new long[groupCount];
+        for (int i = from; i < to; i++) {
+            int group = keys[i] - offset;
+            int isCancelled = cancelled[i];
+            int isConfirmed = 1 - isCancelled;
+            count[group]++;
+            cancelledCount[group] += isCancelled;
+            seats[group] += (long) passengers[i] * isConfirmed;
+            revenue[group] += fare[i] * isConfirmed;
+            refunds[group] += fare[i] * isCancelled;
+        }
+
+        List<AnalyticsGroup> groups = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (count[group] == 0) {
+                continue;
+            }
+            groups.add(AnalyticsGroup.builder()
+                    .key(label.apply(group))
+                    .bookings(count[group])
+                    .cancelledBookings(cancelledCount[group])
+                    .cancellationRate((double) cancelledCount[group] / count[group])
+                    .seatsSold(seats[group])
+                    .revenue(Money.toDecimal(revenue[group]))
+                    .refunds(Money.toDecimal(refunds[group]))
+                    .build());
+        }
+        return groups;
+    }
+
+    private List<PaymentGroup> groupPayments(int[] keys, int groupCount, int from, int to, IntFunction<String> label) {
+        long[] count = new long[groupCount];
+        long[] total = new long[groupCount];
+        for (int i = from; i < to; i++) {
+            count[keys[i]]++;
+            total[keys[i]] += amount[i];
+        }
+
+        List<PaymentGroup> groups = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (count[group] > 0) {
+                groups.add(PaymentGroup.builder()
+                        .key(label.apply(group))
+                        .transactions(count[group])
+                        .amount(Money.toDecimal(total[group]))
+                        .build());
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * @return index of the first row in {@code sorted[0, size)} that is {@code >= value}
+     */
+    private static int lowerBound(int[] sorted, int size, int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String hourLabel(int hour) {
+        return hour < UNKNOWN_HOUR ? String.format("%02d:00", hour) : "unknown";
+    }
+}
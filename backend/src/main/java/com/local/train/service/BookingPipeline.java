@@ -0,0 +1,393 @@
+// BookingPipeline.java
+package com.local.train.service;
+
+import com.local.train.dto.BookingRequest;
+import com.local.train.dto.BookingResponse;
+import com.local.train.dto.PassengerDto;
+import com.local.train.entity.*;
+import com.local.train.event.BookingActivityEvent;
+import com.local.train.event.TicketRequestedEvent;
+import com.local.train.exception.InsufficientSeatsException;
+import com.local.train.exception.PaymentFailedException;
+import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.exception.ServiceUnavailableException;
+import com.local.train.repository.TrainScheduleRepository;
+import com.local.train.repository.WalletRepository;
+import com.local.train.utils.Money;
+import com.local.train.utils.Threads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Queues incoming bookings and commits them in per-schedule micro-batches.
+ *
+ * Each batch loads its schedule and all wallets once, holds seats in memory, debits wallets
+ * through the {@link WalletLedger} and writes bookings, passengers and transactions with JDBC
+ * batch inserts, all in one transaction. Requests that fail validation are answered individually; if the batch itself
+ * cannot commit, its remaining requests are replayed one by one through
+ * {@link BookingService#createBooking(BookingRequest, String, String)}.
+ *
+ * Requests are deduplicated by (user, idempotency key): a retry while the original is queued
+ * waits on the same result, and a retry after commit returns the stored booking.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingPipeline {
+
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (pnr_number, user_id, schedule_id, travel_class, total_fare, status, " +
+            "booking_date, journey_date, idempotency_key, ticket_status, ticket_attempts) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PASSENGER =
+            "INSERT INTO passengers (name, age, gender, seat_number, booking_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (transaction_id, amount, type, method, status, description, " +
+            "wallet_id, booking_id, created_at, balance_delta, ledger_applied) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE)";
+
+    private final BookingService bookingService;
+    private final TrainScheduleRepository scheduleRepository;
+    private final WalletRepository walletRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final WalletLedger walletLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.booking.pipeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.booking.pipeline.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.booking.pipeline.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${app.booking.pipeline.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${app.booking.pipeline.workers:2}")
+    private int workerCount;
+
+    @Value("${app.booking.pipeline.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ConcurrentHashMap<String, CompletableFuture<BookingResponse>> inFlight = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private BlockingQueue<PendingBooking> queue;
+    private volatile boolean running;
+
+    private record PendingBooking(BookingRequest request, String userEmail, String idempotencyKey,
+                                  CompletableFuture<BookingResponse> result) {
+    }
+
+    private record AcceptedBooking(PendingBooking pending, Wallet wallet, long totalFare, Booking booking) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        ThreadFactory threadFactory = Threads.factory("booking-pipeline-", virtualThreads);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        if (queue != null) {
+            PendingBooking pending;
+            while ((pending = queue.poll()) != null) {
+                pending.result().completeExceptionally(
+                        new ServiceUnavailableException("Booking service is shutting down", 5));
+            }
+        }
+    }
+
+    public BookingResponse submit(BookingRequest request, String userEmail, String idempotencyKey) {
+        String key = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? idempotencyKey : UUID.randomUUID().toString();
+        if (!running) {
+            return bookingService.createBooking(request, userEmail, key);
+        }
+
+        String dedupeKey = userEmail + ':' + key;
+        CompletableFuture<BookingResponse> result = new CompletableFuture<>();
+        CompletableFuture<BookingResponse> existing = inFlight.putIfAbsent(dedupeKey, result);
+        if (existing != null) {
+            return await(existing);
+        }
+        result.whenComplete((response, error) -> inFlight.remove(dedupeKey, result));
+
+        try {
+            Optional<BookingResponse> previous = bookingService.findByIdempotencyKey(userEmail, key);
+            if (previous.isPresent()) {
+                result.complete(previous.get());
+            } else if (!queue.offer(new PendingBooking(request, userEmail, key, result))) {
+                throw new ServiceUnavailableException("Too many bookings in progress, please retry", 1);
+            }
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return await(result);
+    }
+
+    private BookingResponse await(CompletableFuture<BookingResponse> result) {
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException(
+                    "Booking is still being processed, retry with the same Idempotency-Key", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking was interrupted, retry with the same Idempotency-Key", 1);
+        }
+    }
+
+    private void runWorker() {
+        List<PendingBooking> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingBooking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingBooking next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batch.stream()
+                        .collect(Collectors.groupingBy(p -> p.request().getScheduleId(),
+                                LinkedHashMap::new, Collectors.toList()))
+                        .values()
+                        .forEach(this::commitGroup);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Booking pipeline worker failed", e);
+                batch.forEach(p -> p.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commitGroup(List<PendingBooking> group) {
+        List<AcceptedBooking> accepted;
+        try {
+            accepted = transactionTemplate.execute(status -> writeGroup(group));
+        } catch (RuntimeException e) {
+            log.warn("Batch commit for schedule {} failed, replaying {} bookings individually: {}",
+                    group.get(0).request().getScheduleId(), group.size(), e.getMessage());
+            for (PendingBooking pending : group) {
+                if (pending.result().isDone()) {
+                    continue;
+                }
+                try {
+                    pending.result().complete(bookingService.createBooking(
+                            pending.request(), pending.userEmail(), pending.idempotencyKey()));
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+            return;
+        }
+        for (AcceptedBooking booking : accepted) {
+            booking.pending().result().complete(bookingService.convertToResponse(booking.booking()));
+        }
+    }
+
+    private List<AcceptedBooking> writeGroup(List<PendingBooking> group) {
+        Long scheduleId = group.get(0).request().getScheduleId();
+        TrainSchedule schedule = scheduleRepository.findById(scheduleId).orElse(null);
+        if (schedule == null) {
+            group.forEach(p -> p.result().completeExceptionally(new ResourceNotFoundException("Schedule not found")));
+            return List.of();
+        }
+
+        Set<String> emails = group.stream().map(PendingBooking::userEmail).collect(Collectors.toSet());
+        Map<String, Wallet> wallets = walletRepository.findByUserEmailIn(emails).stream()
+                .collect(Collectors.toMap(w -> w.getUser().getEmail(), w -> w));
+
+        Map<TravelClass, Long> fares = new EnumMap<>(TravelClass.class);
+        List<AcceptedBooking> accepted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (PendingBooking pending : group) {
+            BookingRequest request = pending.request();
+            Wallet wallet = wallets.get(pending.userEmail());
+            if (wallet == null) {
+                pending.result().completeExceptionally(new ResourceNotFoundException("Wallet not found"));
+                continue;
+            }
+
+            long fare = fares.computeIfAbsent(request.getTravelClass(), travelClass -> bookingService.calculateFare(
+                    schedule.getSourceStation().getId(), schedule.getDestinationStation().getId(), travelClass));
+            long totalFare = Money.times(fare, request.getPassengers().size());
+
+            SeatInventoryService.SeatHold hold;
+            try {
+                hold = seatInventoryService.hold(schedule, request.getJourneyDate(), request.getTravelClass(),
+                        request.getPassengers().stream().map(PassengerDto::getSeatNumber).collect(Collectors.toList()));
+            } catch (InsufficientSeatsException | ResourceNotFoundException e) {
+                pending.result().completeExceptionally(e);
+                continue;
+            }
+            try {
+                walletLedger.debit(wallet.getId(), totalFare);
+            } catch (PaymentFailedException e) {
+                hold.release();
+                pending.result().completeExceptionally(e);
+                continue;
+            } catch (RuntimeException e) {
+                // Not yet tied to the transaction, so the rollback would not give the seats back
+                hold.release();
+                throw e;
+            }
+            hold.completeWithTransaction();
+
+            Booking booking = Booking.builder()
+                    .pnrNumber(Booking.generatePNR())
+                    .user(wallet.getUser())
+                    .schedule(schedule)
+                    .travelClass(request.getTravelClass())
+                    .totalFare(totalFare)
+                    .status(BookingStatus.CONFIRMED)
+                    .bookingDate(now)
+                    .journeyDate(request.getJourneyDate().atStartOfDay())
+                    .idempotencyKey(pending.idempotencyKey())
+                    .build();
+            List<Passenger> passengers = new ArrayList<>();
+            for (int i = 0; i < request.getPassengers().size(); i++) {
+                PassengerDto passengerDto = request.getPassengers().get(i);
+                passengers.add(Passenger.builder()
+                        .name(passengerDto.getName())
+                        .age(passengerDto.getAge())
+                        .gender(passengerDto.getGender())
+                        .seatNumber(hold.getSeats().get(i))
+                        .booking(booking)
+                        .build());
+            }
+            booking.setPassengers(passengers);
+            accepted.add(new AcceptedBooking(pending, wallet, totalFare, booking));
+        }
+
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+        insertBookings(accepted);
+        insertPassengers(accepted);
+        insertTransactions(accepted, now);
+        // Delivered after the batch commits
+        accepted.forEach(entry -> {
+            eventPublisher.publishEvent(new TicketRequestedEvent(entry.booking().getId()));
+            eventPublisher.publishEvent(BookingActivityEvent.booked(entry.booking()));
+        });
+        return accepted;
+    }
+
+    private void insertBookings(List<AcceptedBooking> accepted) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Booking booking = accepted.get(i).booking();
+                        ps.setString(1, booking.getPnrNumber());
+                        ps.setLong(2, booking.getUser().getId());
+                        ps.setLong(3, booking.getSchedule().getId());
+                        ps.setString(4, booking.getTravelClass().name());
+                        ps.setBigDecimal(5, Money.toDecimal(booking.getTotalFare()));
+                        ps.setString(6, booking.getStatus().name());
+                        ps.setTimestamp(7, Timestamp.valueOf(booking.getBookingDate()));
+                        ps.setTimestamp(8, Timestamp.valueOf(booking.getJourneyDate()));
+                        ps.setString(9, booking.getIdempotencyKey());
+                        ps.setString(10, TicketStatus.PENDING.name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accepted.size();
+                    }
+                },
+                keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < accepted.size(); i++) {
+            Number id = (Number) generated.get(i).values().iterator().next();
+            accepted.get(i).booking().setId(id.longValue());
+        }
+    }
+
+    private void insertPassengers(List<AcceptedBooking> accepted) {
+        List<Passenger> passengers = accepted.stream()
+                .flatMap(booking -> booking.booking().getPassengers().stream())
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_PASSENGER, passengers, passengers.size(), (ps, passenger) -> {
+            ps.setString(1, passenger.getName());
+            ps.setObject(2, passenger.getAge());
+            ps.setString(3, passenger.getGender());
+            ps.setString(4, passenger.getSeatNumber());
+            ps.setLong(5, passenger.getBooking().getId());
+        });
+    }
+
+    private void insertTransactions(List<AcceptedBooking> accepted, LocalDateTime now) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, accepted, accepted.size(), (ps, entry) -> {
+            Booking booking = entry.booking();
+            ps.setString(1, "BKG" + booking.getPnrNumber());
+            ps.setBigDecimal(2, Money.toDecimal(booking.getTotalFare()));
+            ps.setString(3, TransactionType.DEBIT.name());
+            ps.setString(4, entry.pending().request().getPaymentMethod().name());
+            ps.setString(5, PaymentStatus.PAID.name());
+            ps.setString(6, "Booking Payment for PNR: " + booking.getPnrNumber());
+            ps.setLong(7, entry.wallet().getId());
+            ps.setLong(8, booking.getId());
+            ps.setTimestamp(9, Timestamp.valueOf(now));
+            ps.setBigDecimal(10, Money.toDecimal(-booking.getTotalFare()));
+        });
+    }
+}
@@ -5,16 +5,20 @@ import com.local.train.utils.*;
 import com.local.train.entity.*;
 import com.local.train.repository.*;
 import com.local.train.dto.*;
+import com.local.train.event.BookingActivityEvent;
+import com.local.train.event.TicketRequestedEvent;
 import com.local.train.exception.*;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,72 +26,89 @@ import java.util.stream.Collectors;
 public class BookingService {
     
     private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final TrainScheduleRepository scheduleRepository;
     private final StationRepository stationRepository;
     private final WalletRepository walletRepository;
+    private final WalletLedger walletLedger;
+    private final TransactionRepository transactionRepository;
     private final PaymentService paymentService;
-    private final PDFGenerator pdfGenerator;
-    private final QRCodeGenerator qrCodeGenerator;
-    private final EmailService emailService;
-    
-    @Value("${app.ticket.pdf.storage-path}")
-    private String pdfStoragePath;
+    private final SeatInventoryService seatInventoryService;
+    private final FareEngine fareEngine;
+    private final TimetableCache timetableCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public BookingResponse createBooking(BookingRequest request, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return createBooking(request, userEmail, null);
+    }
+    
+    @Transactional
+    public BookingResponse createBooking(BookingRequest request, String userEmail, String idempotencyKey) {
+        UserPrincipal user = userCache.get(userEmail);
+        
+        if (idempotencyKey != null) {
+            java.util.Optional<BookingResponse> previous = findByIdempotencyKey(userEmail, idempotencyKey);
+            if (previous.isPresent()) {
+                return previous.get();
+            }
+        }
         
         TrainSchedule schedule = scheduleRepository.findById(request.getScheduleId())
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
         
-        // Check seat availability
-        if (schedule.getAvailableSeats() < request.getPassengers().size()) {
-            throw new InsufficientSeatsException("Not enough seats available");
-        }
+        // Hold seats for this run; released again if the transaction rolls back
+        List<String> seats = seatInventoryService.reserve(
+                schedule,
+                request.getJourneyDate(),
+                request.getTravelClass(),
+                request.getPassengers().stream().map(PassengerDto::getSeatNumber).collect(Collectors.toList()));
         
         // Calculate fare
-        double farePerPassenger = calculateFare(
+        long farePerPassenger = calculateFare(
                 schedule.getSourceStation().getId(),
                 schedule.getDestinationStation().getId(),
                 request.getTravelClass());
-        double totalFare = farePerPassenger * request.getPassengers().size();
+        long totalFare = Money.times(farePerPassenger, request.getPassengers().size());
         
         // Create booking
         Booking booking = Booking.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(user.id()))
                 .schedule(schedule)
                 .travelClass(request.getTravelClass())
                 .totalFare(totalFare)
                 .journeyDate(request.getJourneyDate().atStartOfDay())
                 .status(BookingStatus.CONFIRMED)
+                .idempotencyKey(idempotencyKey)
                 .build();
         
         // Create passengers
-        List<Passenger> passengers = request.getPassengers().stream()
-                .map(passengerDto -> Passenger.builder()
-                        .name(passengerDto.getName())
-                        .age(passengerDto.getAge())
-                        .gender(passengerDto.getGender())
-                        .seatNumber(passengerDto.getSeatNumber())
-                        .booking(booking)
-                        .build())
-                .collect(Collectors.toList());
+        List<Passenger> passengers = new java.util.ArrayList<>();
+        for (int i = 0; i < request.getPassengers().size(); i++) {
+            PassengerDto passengerDto = request.getPassengers().get(i);
+            passengers.add(Passenger.builder()
+                    .name(passengerDto.getName())
+                    .age(passengerDto.getAge())
+                    .gender(passengerDto.getGender())
+                    .seatNumber(seats.get(i))
+                    .booking(booking)
+                    .build());
+        }
         booking.setPassengers(passengers);
         
-        // Process payment
         // Process payment via Wallet
-        Wallet wallet = walletRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
-        
-        if (wallet.getBalance() < totalFare) {
-             throw new PaymentFailedException("Insufficient funds in wallet. Balance: " + wallet.getBalance());
+        if (user.walletId() == null) {
+            throw new ResourceNotFoundException("Wallet not found");
         }
+        Wallet wallet = walletRepository.getReferenceById(user.walletId());
         
-        // Deduct balance
-        wallet.setBalance(wallet.getBalance() - totalFare);
-        walletRepository.save(wallet);
+        // Deduct balance; returned by the ledger if this transaction rolls back
+        walletLedger.debit(user.walletId(), totalFare);
+        
+        // Persist booking (passengers cascade) so the payment can reference it
+        bookingRepository.save(booking);
         
         // Record transaction
         com.local.train.entity.Transaction transaction = new com.local.train.entity.Transaction();
@@ -97,115 +118,33 @@ public class BookingService {
         transaction.setMethod(request.getPaymentMethod());
         transaction.setStatus(PaymentStatus.PAID);
         transaction.setWallet(wallet);
+        transaction.setBooking(booking);
+        transaction.setBalanceDelta(-totalFare);
         transaction.setDescription("Booking Payment for PNR: " + booking.getPnrNumber());
         transaction.setCreatedAt(LocalDateTime.now());
+        transactionRepository.save(transaction);
         
-        // Inject transaction repo if needed, but for now we can rely on cascading if configured, or better:
-        // We need TransactionRepository injected to save this if CascadeType.ALL isn't sufficient or we want explicit save.
-        // Looking at Wallet entity, it has OneToMany mappedBy wallet with CascadeType.ALL.
-        // So adding to wallet's list might work if we manage the relationship, but explicit save is safer.
-        // Since I can't easily add a new dependency (TransactionRepository) in a replace_file without re-writing constructor/fields,
-        // and BookingService ALREADY has PaymentService, let's see if we can use PaymentService to record this?
-        // No, PaymentService is mock.
-        // Let's check imports. TransactionRepository might not be imported.
-        // Actually, looking at the previous view_file of BookingService, it DOES NOT have TransactionRepository.
-        // It DOES have WalletRepository.
-        // It DOES have PaymentService.
-        // I should probably update PaymentService to be a real service that handles Wallet deduction?
-        // COMPLETE STARTEGY CHANGE: To keep BookingService clean, logic should be moved to WalletService or PaymentService.
-        // But the plan said "Update BookingService".
-        // Let's stick to modifying BookingService, as I can't easily change the constructor injection signatures in a replace_file without replacing the whole file.
-        // WAIT! BookingService uses `@RequiredArgsConstructor`. If I add a `private final TransactionRepository transactionRepository;`, I need to recompile.
-        // Actually, BookingService ALREADY has `private final WalletRepository walletRepository;`.
-        // Does it have `TransactionRepository`? Let me check line 24.
-        // It has Booking, User, Schedule, Station, Wallet repositories. NO TransactionRepository.
-        
-        // OPTION 1: Add new field for TransactionRepository. This changes the constructor signature (lombok generated).
-        // Since I'm essentially rewriting the class's logic, maybe I should just use `walletRepository.save(wallet)` and rely on cascade? 
-        // Wallet.java: @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL) private List<Transaction> transactions;
-        // If I add the txn to the list and save wallet, it should propagate.
-        // Let's try that.
-        
-        if (wallet.getTransactions() == null) {
-            wallet.setTransactions(new java.util.ArrayList<>());
-        }
-        transaction.setWallet(wallet);
-        wallet.getTransactions().add(transaction);
-        walletRepository.save(wallet);
-        
-        // Update booking status
-        // (booking is already saved with CONFIRMED)
+        // Ticket artifacts are built and rollups updated once this booking commits
+        eventPublisher.publishEvent(new TicketRequestedEvent(booking.getId()));
+        eventPublisher.publishEvent(BookingActivityEvent.booked(booking));
         
-        // Convert response
         return convertToResponse(booking);
     }
     
-    private double calculateFare(Long sourceId, Long destinationId, TravelClass travelClass) {
-        // Implement fare calculation logic based on distance and class
-        Station source = stationRepository.findById(sourceId).orElseThrow();
-        Station destination = stationRepository.findById(destinationId).orElseThrow();
-        
-        // Simulating distance-based fare
-        double distance = Math.abs(destinationId - sourceId) * 10.0; // Dummy distance
-        if (distance == 0) distance = 20.0; // Minimum distance
-        
-        double baseFare = distance * 1.5;
-        double classMultiplier = switch (travelClass) {
-            case FIRST_CLASS -> 3.0;
-            case SECOND_CLASS -> 2.0;
-            case SLEEPER, AC_COACH -> 1.0; // Assuming SLEEPER or AC_COACH as base fare
-        };
-        
-        return Math.round(baseFare * classMultiplier * 100.0) / 100.0;
-    }
-    
-    private String generateAndSaveTicket(Booking booking) {
-        try {
-            String fileName = "ticket-" + booking.getPnrNumber() + ".pdf";
-            String filePath = pdfStoragePath + fileName;
-            
-            File directory = new File(pdfStoragePath);
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
-            
-            byte[] pdfBytes = generateTicketPdf(booking.getId());
-            try (FileOutputStream fos = new FileOutputStream(filePath)) {
-                fos.write(pdfBytes);
-            }
-            
-            return filePath;
-        } catch (Exception e) {
-            throw new TicketGenerationException("Failed to generate and save ticket: " + e.getMessage());
-        }
+    public java.util.Optional<BookingResponse> findByIdempotencyKey(String userEmail, String idempotencyKey) {
+        return bookingRepository.findByUserEmailAndIdempotencyKey(userEmail, idempotencyKey)
+                .map(booking -> convertToResponse(booking, passengerRepository.countByBookingId(booking.getId())));
     }
     
-    public byte[] generateTicketPdf(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
-        
-        try {
-            // Generate QR Code data
-            String qrData = String.format("PNR:%s|Date:%s|From:%s|To:%s|Class:%s",
-                    booking.getPnrNumber(),
-                    booking.getJourneyDate().toLocalDate(),
-                    booking.getSchedule().getSourceStation().getStationName(),
-                    booking.getSchedule().getDestinationStation().getStationName(),
-                    booking.getTravelClass());
-            
-            byte[] qrCode = qrCodeGenerator.getQRCodeImage(qrData, 200, 200);
-            return pdfGenerator.generateTicketPdf(booking, qrCode);
-        } catch (Exception e) {
-            throw new TicketGenerationException("Failed to generate PDF: " + e.getMessage());
-        }
+    long calculateFare(Long sourceId, Long destinationId, TravelClass travelClass) {
+        return fareEngine.quote(sourceId, destinationId, travelClass);
     }
     
     @Transactional
     public BookingResponse cancelBooking(Long bookingId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserPrincipal user = userCache.get(userEmail);
         
-        Booking booking = bookingRepository.findByIdAndUserId(bookingId, user.getId())
+        Booking booking = bookingRepository.findByIdAndUserId(bookingId, user.id())
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
         
         // Check cancellation window (3 hours before journey)
@@ -219,60 +158,125 @@ public class BookingService {
         // Process refund
         PaymentRefundRequest refundRequest = PaymentRefundRequest.builder()
                 .bookingId(bookingId)
-                .amount(booking.getTotalFare())
-                .userId(user.getId())
+                .amount(Money.toRupees(booking.getTotalFare()))
+                .userId(user.id())
                 .build();
         
         paymentService.processRefund(refundRequest);
         
-        // Update booking status
+        // Update booking status; the ticket is rebuilt to show it
         booking.setStatus(BookingStatus.CANCELLED);
+        booking.setTicketStatus(TicketStatus.PENDING);
+        booking.setTicketAttempts(0);
+        booking.setTicketRetryAt(null);
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(new TicketRequestedEvent(booking.getId()));
+        eventPublisher.publishEvent(BookingActivityEvent.cancelled(booking));
         
-        // Update available seats
-        TrainSchedule schedule = booking.getSchedule();
-        schedule.setAvailableSeats(schedule.getAvailableSeats() + 
-                                 booking.getPassengers().size());
-        scheduleRepository.save(schedule);
+        // Return the seats to this run's inventory
+        seatInventoryService.release(
+                booking.getSchedule(),
+                journeyTime.toLocalDate(),
+                booking.getTravelClass(),
+                booking.getPassengers().stream().map(Passenger::getSeatNumber).collect(Collectors.toList()));
         
         return convertToResponse(booking);
     }
     
-    private BookingResponse convertToResponse(Booking booking) {
+    /**
+     * For bookings whose passengers are already loaded or still in memory.
+     */
+    BookingResponse convertToResponse(Booking booking) {
+        return convertToResponse(booking, booking.getPassengers().size());
+    }
+    
+    /**
+     * Reads the schedule's stations, so callers load bookings with a graph that fetches them.
+     */
+    private BookingResponse convertToResponse(Booking booking, long passengerCount) {
         return BookingResponse.builder()
                 .id(booking.getId())
                 .pnrNumber(booking.getPnrNumber())
                 .journeyDate(booking.getJourneyDate().toLocalDate())
                 .sourceStation(booking.getSchedule().getSourceStation().getStationName())
                 .destinationStation(booking.getSchedule().getDestinationStation().getStationName())
-                .totalFare(booking.getTotalFare())
+                .totalFare(Money.toRupees(booking.getTotalFare()))
                 .status(booking.getStatus())
-                .passengerCount(booking.getPassengers().size())
+                .passengerCount((int) passengerCount)
                 .ticketPath(booking.getTicketPath())
+                .ticketStatus(booking.getTicketStatus())
                 .build();
     }
 
     public List<BookingResponse> getUserBookings(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return bookingRepository.findByUserId(user.getId()).stream()
-                .map(this::convertToResponse)
+        UserPrincipal user = userCache.get(userEmail);
+        List<Booking> bookings = bookingRepository.findByUserId(user.id());
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        // Counted in SQL rather than by initializing every passenger collection
+        Map<Long, Long> passengers = passengerRepository.countByBookingIds(
+                        bookings.stream().map(Booking::getId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(PassengerCount::bookingId, PassengerCount::passengers));
+        return bookings.stream()
+                .map(booking -> convertToResponse(booking, passengers.getOrDefault(booking.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
-    public List<TrainSchedule> searchSchedules(Long sourceId, Long destinationId, java.time.LocalDate date) {
-        String dayOfWeek = date.getDayOfWeek().name();
-        return scheduleRepository.findAvailableSchedules(sourceId, destinationId, dayOfWeek);
+    public List<ScheduleSummary> searchSchedules(Long sourceId, Long destinationId, java.time.LocalDate date) {
+        return timetableCache.search(sourceId, destinationId, date.getDayOfWeek());
     }
 
-    public List<String> getBookedSeats(Long scheduleId) {
-        List<Booking> bookings = bookingRepository.findByScheduleId(scheduleId);
-        return bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CONFIRMED)
-                .flatMap(b -> b.getPassengers().stream())
-                .map(Passenger::getSeatNumber)
-                .filter(seat -> seat != null)
-                .collect(Collectors.toList());
+    public SeatMapResponse getSeatMap(Long scheduleId, java.time.LocalDate journeyDate,
+                                      TravelClass travelClass, String encoding) {
+        SeatBitmap bitmap = getRunBitmap(scheduleId, journeyDate, travelClass);
+        long[] words = bitmap.toWords();
+        
+        SeatMapResponse.SeatMapResponseBuilder response = SeatMapResponse.builder()
+                .scheduleId(scheduleId)
+                .journeyDate(journeyDate)
+                .travelClass(travelClass)
+                .totalSeats(bitmap.getTotalSeats())
+                .availableSeats(bitmap.getAvailableSeats());
+        
+        if ("RLE".equalsIgnoreCase(encoding)) {
+            return response.encoding("RLE")
+                    .runs(SeatBitmap.toRuns(words, bitmap.getTotalSeats()))
+                    .build();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(words);
+        return response.encoding("BITSET")
+                .bitset(Base64.getEncoder().encodeToString(buffer.array()))
+                .build();
+    }
+    
+    public List<String> getBookedSeats(Long scheduleId, java.time.LocalDate journeyDate, TravelClass travelClass) {
+        if (journeyDate != null && travelClass != null) {
+            SeatBitmap bitmap = getRunBitmap(scheduleId, journeyDate, travelClass);
+            List<String> seats = new java.util.ArrayList<>();
+            long[] words = bitmap.toWords();
+            for (int index = 0; index < words.length; index++) {
+                long bits = words[index];
+                while (bits != 0) {
+                    seats.add(SeatLayout.label((index << 6) + Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+            return seats;
+        }
+        
+        return passengerRepository.findBookedSeatNumbers(scheduleId);
+    }
+    
+    /**
+     * Resolves the bitmap of a bookable run; the inventory rejects runs that cannot be booked.
+     */
+    private SeatBitmap getRunBitmap(Long scheduleId, java.time.LocalDate journeyDate, TravelClass travelClass) {
+        return seatInventoryService.getBitmap(
+                new SeatInventoryService.InventoryKey(scheduleId, journeyDate, travelClass),
+                () -> scheduleRepository.findWithOperatingDaysById(scheduleId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Schedule not found")));
     }
     
     public List<Station> getAllStations() {
@@ -0,0 +1,265 @@
+// DailyRollupService.java
+package com.local.train.service;
+
+import com.local.train.entity.TravelClass;
+import com.local.train.event.BookingActivityEvent;
+import com.local.train.utils.Money;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maintains {@code daily_rollups} incrementally.
+ *
+ * Committed {@link BookingActivityEvent}s are summed in memory per (day, schedule, class) and
+ * written behind in one batched upsert per flush, so booking transactions never contend on
+ * rollup rows. Deltas not yet flushed when the process dies are lost; {@link #verify()} runs
+ * nightly over the closed days and each drifted day is recomputed from {@code bookings}.
+ *
+ * Rebuilds go one day at a time: the day's pending deltas are dropped and its rows replaced in a
+ * single short statement, so only a booking or cancellation committing inside that statement can
+ * be counted twice or missed. Today is never verified, as its rows are still moving.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyRollupService {
+
+    private static final int CONFIRMED = 0;
+    private static final int CANCELLED = 1;
+    private static final int REVENUE = 2;
+    private static final int COLLECTED = 3;
+    private static final int REFUNDS = 4;
+    private static final int SEATS = 5;
+    private static final int COUNTERS = 6;
+
+    private static final String UPSERT =
+            "INSERT INTO daily_rollups (rollup_date, schedule_id, travel_class, confirmed_bookings, " +
+            "cancelled_bookings, revenue, collected, refunds, seats_sold) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE confirmed_bookings = confirmed_bookings + VALUES(confirmed_bookings), " +
+            "cancelled_bookings = cancelled_bookings + VALUES(cancelled_bookings), " +
+            "revenue = revenue + VALUES(revenue), collected = collected + VALUES(collected), " +
+            "refunds = refunds + VALUES(refunds), seats_sold = seats_sold + VALUES(seats_sold)";
+    private static final String FROM_BOOKINGS =
+            "SELECT DATE(b.booking_date) AS rollup_date, b.schedule_id, b.travel_class, " +
+            "SUM(b.status = 'CONFIRMED') AS confirmed_bookings, " +
+            "SUM(b.status = 'CANCELLED') AS cancelled_bookings, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'CONFIRMED' THEN b.total_fare END), 0) AS revenue, " +
+            "COALESCE(SUM(b.total_fare), 0) AS collected, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'CANCELLED' THEN b.total_fare END), 0) AS refunds, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'CONFIRMED' THEN p.passengers END), 0) AS seats_sold " +
+            "FROM bookings b " +
+            "LEFT JOIN (SELECT booking_id, COUNT(*) AS passengers FROM passengers GROUP BY booking_id) p " +
+            "ON p.booking_id = b.id " +
+            "WHERE b.booking_date >= ? AND b.booking_date < ? AND b.travel_class IS NOT NULL " +
+            "GROUP BY DATE(b.booking_date), b.schedule_id, b.travel_class";
+    private static final String REBUILD_DAY =
+            "INSERT INTO daily_rollups (rollup_date, schedule_id, travel_class, confirmed_bookings, " +
+            "cancelled_bookings, revenue, collected, refunds, seats_sold) " + FROM_BOOKINGS;
+    private static final String FROM_ROLLUPS =
+            "SELECT rollup_date, schedule_id, travel_class, confirmed_bookings, cancelled_bookings, " +
+            "revenue, collected, refunds, seats_sold FROM daily_rollups WHERE rollup_date >= ? AND rollup_date < ?";
+    private static final String DAYS =
+            "SELECT DISTINCT DATE(booking_date) FROM bookings WHERE booking_date IS NOT NULL " +
+            "UNION SELECT rollup_date FROM daily_rollups";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<RollupKey, long[]> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private record RollupKey(LocalDate date, Long scheduleId, TravelClass travelClass) {
+    }
+
+    /**
+     * @param groups     rollup rows expected from the raw bookings
+     * @param mismatches rows missing, extra or with different counters
+     */
+    public record Verification(int groups, int mismatches) {
+    }
+
+    private record Comparison(int groups, int mismatches, Set<LocalDate> driftedDays) {
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingActivity(BookingActivityEvent event) {
+        pending.compute(new RollupKey(event.bookingDate(), event.scheduleId(), event.travelClass()), (key, counters) -> {
+            long[] sums = counters != null ? counters : new long[COUNTERS];
+            sums[CONFIRMED] += event.confirmed();
+            sums[CANCELLED] += event.cancelled();
+            sums[REVENUE] += event.revenue();
+            sums[COLLECTED] += event.collected();
+            sums[REFUNDS] += event.refunds();
+            sums[SEATS] += event.seats();
+            return sums;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.rollup.flush-interval-ms:1000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            Map<RollupKey, long[]> batch = new HashMap<>();
+            for (RollupKey key : new ArrayList<>(pending.keySet())) {
+                long[] counters = pending.remove(key);
+                if (counters != null) {
+                    batch.put(key, counters);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            batch.forEach((key, counters) -> rows.add(new Object[]{
+                    Date.valueOf(key.date()), key.scheduleId(), key.travelClass().name(),
+                    counters[CONFIRMED], counters[CANCELLED],
+                    Money.toDecimal(counters[REVENUE]), Money.toDecimal(counters[COLLECTED]),
+                    Money.toDecimal(counters[REFUNDS]), counters[SEATS]}));
+            try {
+                jdbcTemplate.batchUpdate(UPSERT, rows);
+            } catch (RuntimeException e) {
+                // Put the deltas back for the next flush
+                batch.forEach((key, counters) -> pending.merge(key, counters, DailyRollupService::add));
+                log.warn("Failed to flush {} rollup rows: {}", batch.size(), e.getMessage());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * First start with rollups: backfill them from existing bookings.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        Boolean hasRollups = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM daily_rollups)", Boolean.class);
+        Boolean hasBookings = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM bookings)", Boolean.class);
+        if (!Boolean.TRUE.equals(hasRollups) && Boolean.TRUE.equals(hasBookings)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every rollup row from {@code bookings}, one day at a time.
+     */
+    public int rebuild() {
+        int rows = 0;
+        List<Date> days = jdbcTemplate.queryForList(DAYS, Date.class);
+        for (Date day : days) {
+            rows += rebuildDay(day.toLocalDate());
+        }
+        log.info("Rebuilt {} daily rollup rows for {} days from bookings", rows, days.size());
+        return rows;
+    }
+
+    /**
+     * Replaces one day's rollup rows. Deltas still pending for that day are dropped, as the
+     * bookings they describe are already committed and counted by the rebuild.
+     */
+    private int rebuildDay(LocalDate day) {
+        writeLock.lock();
+        try {
+            pending.keySet().removeIf(key -> key.date().equals(day));
+            Integer rows = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM daily_rollups WHERE rollup_date = ?", Date.valueOf(day));
+                return jdbcTemplate.update(REBUILD_DAY, startOf(day), startOf(day.plusDays(1)));
+            });
+            return rows != null ? rows : 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Compares the flushed rollups of every day before today with a fresh aggregate over
+     * {@code bookings}.
+     */
+    public Verification verify() {
+        Comparison comparison = compareClosedDays();
+        return new Verification(comparison.groups(), comparison.mismatches());
+    }
+
+    /**
+     * Rebuilds only the days that drifted. The two reads are not one snapshot, so a cancellation
+     * committing between them shows up as drift; rebuilding that day is harmless.
+     */
+    @Scheduled(cron = "${app.rollup.verify-cron:0 30 3 * * *}")
+    public void nightlyVerify() {
+        Comparison comparison = compareClosedDays();
+        if (comparison.mismatches() > 0) {
+            log.warn("{} of {} daily rollup rows drifted from bookings; rebuilding {} days",
+                    comparison.mismatches(), comparison.groups(), comparison.driftedDays().size());
+            comparison.driftedDays().forEach(this::rebuildDay);
+        }
+    }
+
+    private Comparison compareClosedDays() {
+        flush();
+        LocalDate today = LocalDate.now();
+        Map<RollupKey, long[]> expected = load(FROM_BOOKINGS, startOf(LocalDate.EPOCH), startOf(today));
+        Map<RollupKey, long[]> actual = load(FROM_ROLLUPS, Date.valueOf(LocalDate.EPOCH), Date.valueOf(today));
+        // Rows that were only ever touched by offsetting deltas are all zero and count as absent
+        actual.values().removeIf(counters -> Arrays.stream(counters).allMatch(value -> value == 0));
+
+        Set<LocalDate> drifted = new TreeSet<>();
+        int mismatches = 0;
+        for (Map.Entry<RollupKey, long[]> entry : expected.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), actual.remove(entry.getKey()))) {
+                drifted.add(entry.getKey().date());
+                mismatches++;
+            }
+        }
+        actual.keySet().forEach(key -> drifted.add(key.date()));
+        mismatches += actual.size();
+        return new Comparison(expected.size(), mismatches, drifted);
+    }
+
+    private static Timestamp startOf(LocalDate day) {
+        return Timestamp.valueOf(day.atStartOfDay());
+    }
+
+    private Map<RollupKey, long[]> load(String sql, Object from, Object to) {
+        Map<RollupKey, long[]> rows = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            long[] counters = new long[COUNTERS];
+            counters[CONFIRMED] = rs.getLong("confirmed_bookings");
+            counters[CANCELLED] = rs.getLong("cancelled_bookings");
+            counters[REVENUE] = Money.ofDecimal(rs.getBigDecimal("revenue"));
+            counters[COLLECTED] = Money.ofDecimal(rs.getBigDecimal("collected"));
+            counters[REFUNDS] = Money.ofDecimal(rs.getBigDecimal("refunds"));
+            counters[SEATS] = rs.getLong("seats_sold");
+            rows.put(new RollupKey(rs.getDate("rollup_date").toLocalDate(), rs.getLong("schedule_id"),
+                    TravelClass.valueOf(rs.getString("travel_class"))), counters);
+        }, from, to);
+        return rows;
+    }
+
+    private static long[] add(long[] left, long[] right) {
+        long[] sum = left.clone();
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += right[i];
+        }
+        return sum;
+    }
+}
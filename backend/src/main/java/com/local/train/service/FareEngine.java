@@ -0,0 +1,134 @@
+// FareEngine.java
+package com.local.train.service;
+
+import com.local.train.entity.Station;
+import com.local.train.entity.StationFare;
+import com.local.train.entity.TravelClass;
+import com.local.train.event.FareDataChangedEvent;
+import com.local.train.repository.StationFareRepository;
+import com.local.train.repository.StationRepository;
+import com.local.train.utils.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Precomputed per-passenger fares for every station pair and travel class.
+ *
+ * The whole table is rebuilt off the request path and swapped in with a single volatile write,
+ * so a quote is two hash lookups and an array read: no database access and no allocation.
+ * Fares are held in paise.
+ * Pairs without a {@link StationFare} row fall back to the legacy distance estimate.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FareEngine {
+
+    private static final TravelClass[] CLASSES = TravelClass.values();
+
+    private final StationRepository stationRepository;
+    private final StationFareRepository stationFareRepository;
+
+    @Value("${app.fare.rate-per-km:1.5}")
+    private double ratePerKm;
+
+    @Value("${app.fare.minimum-distance-km:20}")
+    private double minimumDistanceKm;
+
+    private volatile FareMatrix matrix = new FareMatrix(Map.of(), new long[0][]);
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * @param ordinals station id to row/column index
+     * @param fares    fares[source][destination * classes + travelClass.ordinal()]
+     */
+    private record FareMatrix(Map<Long, Integer> ordinals, long[][] fares) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFareDataChanged(FareDataChangedEvent event) {
+        reload();
+    }
+
+    public void reload() {
+        // A lock rather than synchronized: the reload does JDBC work, which would pin a virtual thread
+        reloadLock.lock();
+        try {
+            List<Station> stations = stationRepository.findAll();
+            Map<Long, Integer> ordinals = new HashMap<>(stations.size() * 2);
+            for (Station station : stations) {
+                ordinals.put(station.getId(), ordinals.size());
+            }
+
+            int n = stations.size();
+            long[][] fares = new long[n][n * CLASSES.length];
+            for (Station source : stations) {
+                long[] row = fares[ordinals.get(source.getId())];
+                for (Station destination : stations) {
+                    int column = ordinals.get(destination.getId()) * CLASSES.length;
+                    long baseFare = legacyBaseFare(source.getId(), destination.getId());
+                    for (TravelClass travelClass : CLASSES) {
+                        row[column + travelClass.ordinal()] = Money.scale(baseFare, travelClass.getFareMultiplier());
+                    }
+                }
+            }
+
+            for (StationFare fare : stationFareRepository.findAll()) {
+                Integer source = ordinals.get(fare.getSourceStationId());
+                Integer destination = ordinals.get(fare.getDestinationStationId());
+                if (source == null || destination == null) {
+                    continue;
+                }
+                long baseFare = fare.getBaseFare() != null
+                        ? fare.getBaseFare()
+                        : Money.ofRupees(Math.max(fare.getDistanceKm(), minimumDistanceKm) * ratePerKm);
+                int column = destination * CLASSES.length;
+                for (TravelClass travelClass : CLASSES) {
+                    fares[source][column + travelClass.ordinal()] = Money.scale(baseFare, travelClass.getFareMultiplier());
+                }
+            }
+
+            matrix = new FareMatrix(ordinals, fares);
+            log.info("Fare matrix loaded for {} stations", n);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * @return the fare in paise for one passenger between the two stations
+     */
+    public long quote(Long sourceStationId, Long destinationStationId, TravelClass travelClass) {
+        FareMatrix current = matrix;
+        Integer source = current.ordinals().get(sourceStationId);
+        Integer destination = current.ordinals().get(destinationStationId);
+        if (source == null || destination == null) {
+            // Station created since the last reload; its commit will trigger one shortly
+            return Money.scale(legacyBaseFare(sourceStationId, destinationStationId), travelClass.getFareMultiplier());
+        }
+        return current.fares()[source][destination * CLASSES.length + travelClass.ordinal()];
+    }
+
+    private long legacyBaseFare(Long sourceId, Long destinationId) {
+        // Simulating distance-based fare until a real distance is configured
+        double distance = Math.abs(destinationId - sourceId) * 10.0;
+        if (distance == 0) distance = minimumDistanceKm;
+        return Money.ofRupees(distance * ratePerKm);
+    }
+}
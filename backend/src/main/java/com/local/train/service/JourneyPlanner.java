@@ -0,0 +1,325 @@
+// JourneyPlanner.java
+package com.local.train.service;
+
+import com.local.train.dto.JourneyLeg;
+import com.local.train.dto.JourneyOption;
+import com.local.train.entity.TrainSchedule;
+import com.local.train.event.ScheduleChangedEvent;
+import com.local.train.repository.TrainScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-leg journey search over an in-memory timetable.
+ *
+ * Every schedule is a single direct trip, so the timetable is stored as parallel primitive arrays
+ * with trips grouped by departure station and sorted by departure minute. Queries run a
+ * round-based (RAPTOR-style) search: round k finds the earliest arrival at every station using
+ * at most k trips, which yields the min-transfer and the earliest-arrival journeys in one pass.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JourneyPlanner {
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final TrainScheduleRepository scheduleRepository;
+
+    @Value("${app.journey.min-transfer-minutes:5}")
+    private int minTransferMinutes;
+
+    @Value("${app.journey.max-transfers:3}")
+    private int defaultMaxTransfers;
+
+    private volatile TimetableIndex index = TimetableIndex.EMPTY;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        rebuild();
+    }
+
+    public void rebuild() {
+        // Not synchronized: the query would pin a virtual thread for its whole duration
+        rebuildLock.lock();
+        try {
+            index = TimetableIndex.build(scheduleRepository.findAllWithOperatingDays());
+            log.info("Journey planner indexed {} trips across {} stations", index.tripCount(), index.stationCount());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * @return Pareto-optimal journeys ordered by number of transfers; the first has the fewest
+     * transfers and the last arrives earliest
+     */
+    public List<JourneyOption> plan(Long sourceId, Long destinationId, LocalDate date,
+                                    LocalTime departAfter, Integer maxTransfers) {
+        TimetableIndex timetable = index;
+        Integer source = timetable.stationOrdinals.get(sourceId);
+        Integer target = timetable.stationOrdinals.get(destinationId);
+        if (source == null || target == null || source.equals(target)) {
+            return List.of();
+        }
+
+        // Caller-supplied values are capped at the configured maximum; each round allocates per-station arrays
+        int rounds = (maxTransfers != null
+                ? Math.min(Math.max(0, maxTransfers), defaultMaxTransfers) : defaultMaxTransfers) + 1;
+        int dayBit = 1 << (date.getDayOfWeek().getValue() - 1);
+        int start = departAfter != null ? departAfter.getHour() * 60 + departAfter.getMinute() : 0;
+        int n = timetable.stationCount();
+
+        int[] best = new int[n];
+        int[] previous = new int[n];
+        int[] current = new int[n];
+        int[][] reachedBy = new int[rounds + 1][n];
+        Arrays.fill(best, UNREACHED);
+        Arrays.fill(previous, UNREACHED);
+        for (int[] round : reachedBy) {
+            Arrays.fill(round, -1);
+        }
+        best[source] = start;
+        previous[source] = start;
+
+        boolean[] marked = new boolean[n];
+        boolean[] nextMarked = new boolean[n];
+        marked[source] = true;
+        List<JourneyOption> options = new ArrayList<>();
+
+        for (int k = 1; k <= rounds; k++) {
+            System.arraycopy(previous, 0, current, 0, n);
+            boolean improved = false;
+            for (int station = 0; station < n; station++) {
+                if (!marked[station]) {
+                    continue;
+                }
+                int earliest = previous[station] + (k > 1 ? minTransferMinutes : 0);
+                int end = timetable.departureOffsets[station + 1];
+                for (int i = timetable.firstDepartureAtOrAfter(station, earliest); i < end; i++) {
+                    int trip = timetable.tripsByDeparture[i];
+                    if ((timetable.dayMasks[trip] & dayBit) == 0) {
+                        continue;
+                    }
+                    int arrival = timetable.arrivalMinutes[trip];
+                    int stop = timetable.arrivalStations[trip];
+                    // Target pruning: nothing arriving after the best known arrival at the target helps
+                    if (arrival < best[stop] && arrival < best[target]) {
+                        best[stop] = arrival;
+                        current[stop] = arrival;
+                        reachedBy[k][stop] = trip;
+                        nextMarked[stop] = true;
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) {
+                break;
+            }
+            if (reachedBy[k][target] != -1) {
+                options.add(toOption(timetable, reachedBy, k, source, target, date));
+            }
+            boolean[] swap = marked;
+            marked = nextMarked;
+            nextMarked = swap;
+            Arrays.fill(nextMarked, false);
+            int[] roll = previous;
+            previous = current;
+            current = roll;
+        }
+        return options;
+    }
+
+    private JourneyOption toOption(TimetableIndex timetable, int[][] reachedBy, int round,
+                                   int source, int target, LocalDate date) {
+        LinkedList<JourneyLeg> legs = new LinkedList<>();
+        int station = target;
+        int k = round;
+        while (station != source) {
+            while (reachedBy[k][station] == -1) {
+                k--;
+            }
+            int trip = reachedBy[k][station];
+            legs.addFirst(JourneyLeg.builder()
+                    .scheduleId(timetable.scheduleIds[trip])
+                    .trainNumber(timetable.trainNumbers[trip])
+                    .trainName(timetable.trainNames[trip])
+                    .sourceStationId(timetable.stationIds[timetable.departureStations[trip]])
+                    .sourceStation(timetable.stationNames[timetable.departureStations[trip]])
+                    .destinationStationId(timetable.stationIds[timetable.arrivalStations[trip]])
+                    .destinationStation(timetable.stationNames[timetable.arrivalStations[trip]])
+                    .departureTime(at(date, timetable.departureMinutes[trip]))
+                    .arrivalTime(at(date, timetable.arrivalMinutes[trip]))
+                    .build());
+            station = timetable.departureStations[trip];
+            k--;
+        }
+        LocalDateTime departure = legs.getFirst().getDepartureTime();
+        LocalDateTime arrival = legs.getLast().getArrivalTime();
+        return JourneyOption.builder()
+                .departureTime(departure)
+                .arrivalTime(arrival)
+                .transfers(legs.size() - 1)
+                .durationMinutes((int) java.time.Duration.between(departure, arrival).toMinutes())
+                .legs(new ArrayList<>(legs))
+                .build();
+    }
+
+    private static LocalDateTime at(LocalDate date, int minutes) {
+        return date.atStartOfDay().plusMinutes(minutes);
+    }
+
+    /**
+     * Immutable, array-backed timetable. Trips are indexed 0..tripCount-1; departures of station s
+     * are {@code tripsByDeparture[departureOffsets[s] .. departureOffsets[s+1])}, sorted by minute.
+     */
+    private static final class TimetableIndex {
+
+        static final TimetableIndex EMPTY = build(List.of());
+
+        final Map<Long, Integer> stationOrdinals;
+        final long[] stationIds;
+        final String[] stationNames;
+
+        final long[] scheduleIds;
+        final String[] trainNumbers;
+        final String[] trainNames;
+        final int[] departureStations;
+        final int[] arrivalStations;
+        final int[] departureMinutes;
+        final int[] arrivalMinutes; // past MINUTES_PER_DAY for overnight trips
+        final int[] dayMasks; // bit 0 = Monday
+
+        final int[] departureOffsets;
+        final int[] tripsByDeparture;
+        final int[] sortedDepartureMinutes;
+
+        private TimetableIndex(List<TrainSchedule> schedules) {
+            List<TrainSchedule> usable = schedules.stream()
+                    .filter(s -> s.getDepartureTime() != null && s.getArrivalTime() != null)
+                    .toList();
+
+            stationOrdinals = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            for (TrainSchedule schedule : usable) {
+                for (var station : List.of(schedule.getSourceStation(), schedule.getDestinationStation())) {
+                    if (stationOrdinals.putIfAbsent(station.getId(), ids.size()) == null) {
+                        ids.add(station.getId());
+                        names.add(station.getStationName());
+                    }
+                }
+            }
+            stationIds = ids.stream().mapToLong(Long::longValue).toArray();
+            stationNames = names.toArray(new String[0]);
+
+            int trips = usable.size();
+            scheduleIds = new long[trips];
+            trainNumbers = new String[trips];
+            trainNames = new String[trips];
+            departureStations = new int[trips];
+            arrivalStations = new int[trips];
+            departureMinutes = new int[trips];
+            arrivalMinutes = new int[trips];
+            dayMasks = new int[trips];
+            for (int t = 0; t < trips; t++) {
+                TrainSchedule schedule = usable.get(t);
+                scheduleIds[t] = schedule.getId();
+                trainNumbers[t] = schedule.getTrain().getTrainNumber();
+                trainNames[t] = schedule.getTrain().getTrainName();
+                departureStations[t] = stationOrdinals.get(schedule.getSourceStation().getId());
+                arrivalStations[t] = stationOrdinals.get(schedule.getDestinationStation().getId());
+                departureMinutes[t] = minuteOfDay(schedule.getDepartureTime());
+                int arrival = minuteOfDay(schedule.getArrivalTime());
+                arrivalMinutes[t] = arrival < departureMinutes[t] ? arrival + MINUTES_PER_DAY : arrival;
+                dayMasks[t] = dayMask(schedule.getOperatingDays());
+            }
+
+            int n = stationIds.length;
+            departureOffsets = new int[n + 1];
+            for (int t = 0; t < trips; t++) {
+                departureOffsets[departureStations[t] + 1]++;
+            }
+            for (int s = 0; s < n; s++) {
+                departureOffsets[s + 1] += departureOffsets[s];
+            }
+            Integer[] order = new Integer[trips];
+            for (int t = 0; t < trips; t++) {
+                order[t] = t;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingInt(t -> departureStations[t])
+                    .thenComparingInt(t -> departureMinutes[t]));
+            tripsByDeparture = new int[trips];
+            sortedDepartureMinutes = new int[trips];
+            for (int i = 0; i < trips; i++) {
+                tripsByDeparture[i] = order[i];
+                sortedDepartureMinutes[i] = departureMinutes[order[i]];
+            }
+        }
+
+        static TimetableIndex build(List<TrainSchedule> schedules) {
+            return new TimetableIndex(schedules);
+        }
+
+        int stationCount() {
+            return stationIds.length;
+        }
+
+        int tripCount() {
+            return scheduleIds.length;
+        }
+
+        int firstDepartureAtOrAfter(int station, int minute) {
+            int low = departureOffsets[station];
+            int high = departureOffsets[station + 1];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedDepartureMinutes[mid] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static int minuteOfDay(LocalTime time) {
+            return time.getHour() * 60 + time.getMinute();
+        }
+
+        private static int dayMask(List<String> operatingDays) {
+            if (operatingDays == null || operatingDays.isEmpty()) {
+                return 0;
+            }
+            int mask = 0;
+            for (String day : operatingDays) {
+                try {
+                    mask |= 1 << (DayOfWeek.valueOf(day.trim().toUpperCase()).getValue() - 1);
+                } catch (IllegalArgumentException ignored) {
+                    // Unknown day names never match, like the JPQL MEMBER OF search
+                }
+            }
+            return mask;
+        }
+    }
+}
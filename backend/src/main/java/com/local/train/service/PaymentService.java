@@ -4,6 +4,7 @@ package com.local.train.service;
 import com.local.train.dto.*;
 import com.local.train.entity.*;
 import com.local.train.repository.*;
+import com.local.train.utils.Money;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,28 +19,19 @@ public class PaymentService {
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final BookingRepository bookingRepository;
+    private final WalletLedger walletLedger;
     
     @Transactional
     public PaymentResponse processPayment(PaymentRequest request) {
         try {
             Wallet wallet = walletRepository.findByUserId(request.getUserId())
                     .orElseThrow(() -> new RuntimeException("Wallet not found"));
-            
-            // Check wallet balance if using wallet
-            if (request.getMethod() == PaymentMethod.WALLET) {
-                if (wallet.getBalance() < request.getAmount()) {
-                    return PaymentResponse.builder()
-                            .status(PaymentStatus.FAILED)
-                            .message("Insufficient wallet balance")
-                            .build();
-                }
-                wallet.setBalance(wallet.getBalance() - request.getAmount());
-            }
+            long amount = Money.ofRupees(request.getAmount());
             
             // Create transaction record
             Transaction transaction = new Transaction();
             transaction.setTransactionId(UUID.randomUUID().toString());
-            transaction.setAmount(request.getAmount());
+            transaction.setAmount(amount);
             transaction.setType(TransactionType.DEBIT);
             transaction.setMethod(request.getMethod());
             transaction.setStatus(PaymentStatus.PAID);
@@ -54,8 +46,19 @@ public class PaymentService {
                 transaction.setBooking(booking);
             }
             
+            // Debit the wallet last so nothing after it can fail without rolling back
+            if (request.getMethod() == PaymentMethod.WALLET) {
+                if (walletLedger.getBalance(wallet.getId()) < amount) {
+                    return PaymentResponse.builder()
+                            .status(PaymentStatus.FAILED)
+                            .message("Insufficient wallet balance")
+                            .build();
+                }
+                walletLedger.debit(wallet.getId(), amount);
+                transaction.setBalanceDelta(-amount);
+            }
+            
             transactionRepository.save(transaction);
-            walletRepository.save(wallet);
             
             return PaymentResponse.builder() // Changed from SUCCESSFUL to PAID
                     .status(PaymentStatus.PAID)
@@ -80,24 +83,25 @@ public class PaymentService {
             // Find the booking being refunded
             Booking booking = bookingRepository.findById(request.getBookingId())
                     .orElseThrow(() -> new RuntimeException("Booking not found for refund: " + request.getBookingId()));
+            long amount = Money.ofRupees(request.getAmount());
 
-            // Refund to wallet
-            wallet.setBalance(wallet.getBalance() + request.getAmount());
-            
             // Create refund transaction
             Transaction transaction = new Transaction();
             transaction.setTransactionId(UUID.randomUUID().toString());
-            transaction.setAmount(request.getAmount());
+            transaction.setAmount(amount);
             transaction.setType(TransactionType.CREDIT);
             transaction.setMethod(PaymentMethod.WALLET);
             transaction.setStatus(PaymentStatus.REFUNDED);
             transaction.setWallet(wallet);
             transaction.setBooking(booking);
+            transaction.setBalanceDelta(amount);
             transaction.setDescription("Ticket cancellation refund");
             transaction.setCreatedAt(LocalDateTime.now());
             
+            // Refund to wallet once the refund entry commits; registered before the row is written
+            // so a cold ledger load does not already count its delta
+            walletLedger.credit(wallet.getId(), amount);
             transactionRepository.save(transaction);
-            walletRepository.save(wallet);
             
             return PaymentResponse.builder()
                     .status(PaymentStatus.REFUNDED)
@@ -0,0 +1,178 @@
+// ReportingService.java
+package com.local.train.service;
+
+import com.local.train.dto.DailyBookingSummary;
+import com.local.train.dto.RevenueGroup;
+import com.local.train.dto.RevenueReport;
+import com.local.train.utils.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Revenue and booking reports served from {@code daily_rollups}.
+ *
+ * Rollups hold one row per booking day, schedule and class, maintained by
+ * {@link DailyRollupService} as bookings commit, so a report reads a few rows per day in range
+ * instead of every booking. Train and route reports aggregate per schedule first and only then
+ * join the resulting rows to their names. Figures lag committed bookings by at most one rollup
+ * flush interval.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportingService {
+
+    public enum Dimension {
+        DAY, TRAIN, ROUTE, CLASS, STATUS
+    }
+
+    private static final String AGGREGATES =
+            "SUM(r.confirmed_bookings) AS confirmed, SUM(r.cancelled_bookings) AS cancelled, " +
+            "SUM(r.revenue) AS revenue, SUM(r.collected) AS collected, SUM(r.refunds) AS refunds, " +
+            "SUM(r.seats_sold) AS seats";
+    private static final String SUMMARY =
+            "SELECT r.rollup_date AS day, r.travel_class AS travel_class, " + AGGREGATES +
+            " FROM daily_rollups r WHERE %s GROUP BY r.rollup_date, r.travel_class";
+    private static final String DAILY =
+            "SELECT r.rollup_date AS day, " + AGGREGATES +
+            " FROM daily_rollups r WHERE %s GROUP BY r.rollup_date ORDER BY r.rollup_date";
+    private static final String BY_COLUMN =
+            "SELECT %s AS group_key, " + AGGREGATES +
+            " FROM daily_rollups r WHERE %s GROUP BY group_key ORDER BY group_key";
+    private static final String BY_SCHEDULE =
+            "SELECT %s AS group_key, SUM(a.confirmed) AS confirmed, SUM(a.cancelled) AS cancelled, " +
+            "SUM(a.revenue) AS revenue FROM (" +
+            "SELECT r.schedule_id, " + AGGREGATES + " FROM daily_rollups r WHERE %s GROUP BY r.schedule_id) a " +
+            "JOIN train_schedules s ON s.id = a.schedule_id " +
+            "JOIN trains t ON t.id = s.train_id " +
+            "JOIN stations src ON src.id = s.source_station_id " +
+            "JOIN stations dst ON dst.id = s.destination_station_id " +
+            "GROUP BY group_key ORDER BY revenue DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevenueReport revenueReport(LocalDate startDate, LocalDate endDate) {
+        List<Object> args = new ArrayList<>();
+        String where = dateRange(startDate, endDate, args);
+
+        long[] totals = new long[6]; // confirmed, cancelled, revenue, collected, refunds, seats
+        Map<String, Long> byClass = new TreeMap<>();
+        Map<LocalDate, Long> byDay = new TreeMap<>();
+        jdbcTemplate.query(String.format(SUMMARY, where), rs -> {
+            long revenue = Money.ofDecimal(rs.getBigDecimal("revenue"));
+            totals[0] += rs.getLong("confirmed");
+            totals[1] += rs.getLong("cancelled");
+            totals[2] += revenue;
+            totals[3] += Money.ofDecimal(rs.getBigDecimal("collected"));
+            totals[4] += Money.ofDecimal(rs.getBigDecimal("refunds"));
+            totals[5] += rs.getLong("seats");
+            byClass.merge(rs.getString("travel_class"), revenue, Long::sum);
+            byDay.merge(rs.getDate("day").toLocalDate(), revenue, Long::sum);
+        }, args.toArray());
+
+        return RevenueReport.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .totalRevenue(Money.toDecimal(totals[2]))
+                .totalRefunds(Money.toDecimal(totals[4]))
+                .netRevenue(Money.toDecimal(totals[3] - totals[4]))
+                .totalBookings((int) totals[0])
+                .cancelledBookings((int) totals[1])
+                .seatsSold(totals[5])
+                .revenueByClass(toDecimals(byClass))
+                .dailyRevenue(toDecimals(byDay))
+                .build();
+    }
+
+    public List<DailyBookingSummary> bookingSummary(LocalDate startDate, LocalDate endDate) {
+        List<Object> args = new ArrayList<>();
+        String where = dateRange(startDate, endDate, args);
+        return jdbcTemplate.query(String.format(DAILY, where), (rs, rowNum) -> DailyBookingSummary.builder()
+                .date(rs.getDate("day").toLocalDate())
+                .bookings(rs.getLong("confirmed"))
+                .cancelledBookings(rs.getLong("cancelled"))
+                .seatsSold(rs.getLong("seats"))
+                .revenue(rs.getBigDecimal("revenue"))
+                .refunds(rs.getBigDecimal("refunds"))
+                .build(), args.toArray());
+    }
+
+    public List<RevenueGroup> revenueBy(Dimension dimension, LocalDate startDate, LocalDate endDate) {
+        List<Object> args = new ArrayList<>();
+        String where = dateRange(startDate, endDate, args);
+        return switch (dimension) {
+            case DAY -> grouped(String.format(BY_COLUMN, "r.rollup_date", where), args);
+            case CLASS -> grouped(String.format(BY_COLUMN, "r.travel_class", where), args);
+            case TRAIN -> grouped(String.format(BY_SCHEDULE, "CONCAT(t.train_number, ' ', t.train_name)", where), args);
+            case ROUTE -> grouped(String.format(BY_SCHEDULE, "CONCAT(src.station_code, '-', dst.station_code)", where), args);
+            case STATUS -> byStatus(where, args);
+        };
+    }
+
+    private List<RevenueGroup> grouped(String sql, List<Object> args) {
+        return jdbcTemplate.query(sql, (rs, rowNum) -> RevenueGroup.builder()
+                .key(rs.getString("group_key"))
+                .bookings(rs.getLong("confirmed"))
+                .cancelledBookings(rs.getLong("cancelled"))
+                .revenue(rs.getBigDecimal("revenue"))
+                .build(), args.toArray());
+    }
+
+    /**
+     * Rollups count statuses side by side, so the status split is one row of totals pivoted into
+     * a confirmed and a cancelled group; cancelled revenue is the fare that was refunded.
+     */
+    private List<RevenueGroup> byStatus(String where, List<Object> args) {
+        List<RevenueGroup> groups = new ArrayList<>(2);
+        jdbcTemplate.query("SELECT " + AGGREGATES + " FROM daily_rollups r WHERE " + where, rs -> {
+            groups.add(RevenueGroup.builder()
+                    .key("CANCELLED")
+                    .bookings(0L)
+                    .cancelledBookings(rs.getLong("cancelled"))
+                    .revenue(decimal(rs.getBigDecimal("refunds")))
+                    .build());
+            groups.add(RevenueGroup.builder()
+                    .key("CONFIRMED")
+                    .bookings(rs.getLong("confirmed"))
+                    .cancelledBookings(0L)
+                    .revenue(decimal(rs.getBigDecimal("revenue")))
+                    .build());
+        }, args.toArray());
+        return groups;
+    }
+
+    /**
+     * Inclusive range on the rollup day, which leads the rollup unique key; either bound may be null.
+     */
+    private static String dateRange(LocalDate startDate, LocalDate endDate, List<Object> args) {
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (startDate != null) {
+            where.append(" AND r.rollup_date >= ?");
+            args.add(Date.valueOf(startDate));
+        }
+        if (endDate != null) {
+            where.append(" AND r.rollup_date <= ?");
+            args.add(Date.valueOf(endDate));
+        }
+        return where.toString();
+    }
+
+    private static BigDecimal decimal(BigDecimal value) {
+        return value != null ? value : Money.toDecimal(0);
+    }
+
+    private static <K> Map<K, BigDecimal> toDecimals(Map<K, Long> paise) {
+        Map<K, BigDecimal> result = new LinkedHashMap<>();
+        paise.forEach((key, amount) -> result.put(key, Money.toDecimal(amount)));
+        return result;
+    }
+}
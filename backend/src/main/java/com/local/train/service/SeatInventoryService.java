@@ -0,0 +1,500 @@
+// SeatInventoryService.java
+package com.local.train.service;
+
+import com.local.train.entity.SeatInventory;
+import com.local.train.entity.TrainSchedule;
+import com.local.train.entity.TravelClass;
+import com.local.train.event.ScheduleChangedEvent;
+import com.local.train.exception.InsufficientSeatsException;
+import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.repository.PassengerRepository;
+import com.local.train.repository.SeatInventoryRepository;
+import com.local.train.utils.SeatBitmap;
+import com.local.train.utils.SeatLayout;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-run seat inventory keyed by (schedule, journey date, travel class).
+ *
+ * Seats are claimed in memory with CAS on a {@link SeatBitmap}, so concurrent bookings never
+ * oversell and never lock the {@code train_schedules} row. Claims made inside a transaction are
+ * rolled back in memory if that transaction does not commit. Each run also keeps a committed
+ * view that only changes when a transaction commits; that view is what {@link #flush()} writes
+ * behind to the {@code seat_inventory} table. Runs are only evicted (schedule changes, or
+ * {@link #prunePastRuns()} once the journey date has passed) when no hold on them is pending.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatInventoryService {
+
+    private final SeatInventoryRepository inventoryRepository;
+    private final PassengerRepository passengerRepository;
+
+    private final ConcurrentHashMap<InventoryKey, Run> inventories = new ConcurrentHashMap<>();
+    private final Set<InventoryKey> dirty = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.booking.window-days:120}")
+    private int bookingWindowDays;
+
+    public record InventoryKey(Long scheduleId, LocalDate journeyDate, TravelClass travelClass) {
+    }
+
+    /**
+     * Reserves one seat per entry of {@code requestedSeats}. Non-null entries must be free seat
+     * labels; null entries are auto-assigned. The hold is kept if the surrounding transaction
+     * commits and released if it rolls back.
+     *
+     * @return the seat labels actually held, in the same order as the request
+     */
+    public List<String> reserve(TrainSchedule schedule, LocalDate journeyDate,
+                                TravelClass travelClass, List<String> requestedSeats) {
+        SeatHold hold = hold(schedule, journeyDate, travelClass, requestedSeats);
+        hold.completeWithTransaction();
+        return hold.getSeats();
+    }
+
+    /**
+     * Claims seats in memory only. The caller must either {@link SeatHold#release()} the hold or
+     * tie it to a transaction with {@link SeatHold#completeWithTransaction()}.
+     *
+     * @throws ResourceNotFoundException if the run is outside the booking window or the schedule
+     *                                   does not operate on that day
+     */
+    public SeatHold hold(TrainSchedule schedule, LocalDate journeyDate,
+                         TravelClass travelClass, List<String> requestedSeats) {
+        InventoryKey key = new InventoryKey(schedule.getId(), journeyDate, travelClass);
+        checkBookingWindow(journeyDate);
+        Run run = acquire(key, () -> checkOperatingDay(schedule, journeyDate));
+        try {
+            return claim(key, run, requestedSeats);
+        } catch (RuntimeException e) {
+            run.done();
+            throw e;
+        }
+    }
+
+    private SeatHold claim(InventoryKey key, Run run, List<String> requestedSeats) {
+        SeatBitmap bitmap = run.live;
+        List<Integer> explicit = new ArrayList<>();
+        int unassigned = 0;
+        for (String seat : requestedSeats) {
+            if (seat == null || seat.isBlank()) {
+                unassigned++;
+                continue;
+            }
+            int index = SeatLayout.index(seat);
+            if (index < 0 || index >= bitmap.getTotalSeats()) {
+                throw new InsufficientSeatsException("Seat " + seat + " does not exist on this train");
+            }
+            explicit.add(index);
+        }
+
+        int[] chosen = explicit.stream().mapToInt(Integer::intValue).toArray();
+        if (!bitmap.claimAll(chosen)) {
+            throw new InsufficientSeatsException("One or more selected seats are no longer available");
+        }
+        int[] assigned = bitmap.claimAny(unassigned);
+        if (assigned == null) {
+            for (int seat : chosen) {
+                bitmap.release(seat);
+            }
+            throw new InsufficientSeatsException("Not enough seats available");
+        }
+
+        List<String> held = new ArrayList<>(requestedSeats.size());
+        int next = 0;
+        for (String seat : requestedSeats) {
+            held.add(seat == null || seat.isBlank()
+                    ? SeatLayout.label(assigned[next++])
+                    : seat.toUpperCase());
+        }
+        return new SeatHold(key, run, chosen, assigned, held);
+    }
+
+    /**
+     * Frees the given seats once the surrounding transaction (if any) commits.
+     */
+    public void release(TrainSchedule schedule, LocalDate journeyDate,
+                        TravelClass travelClass, List<String> seats) {
+        InventoryKey key = new InventoryKey(schedule.getId(), journeyDate, travelClass);
+        Run run = acquire(key, () -> schedule);
+        runOnCompletion(committed -> {
+            try {
+                if (!committed) {
+                    return;
+                }
+                for (String seat : seats) {
+                    int index = SeatLayout.index(seat);
+                    if (index >= 0 && index < run.live.getTotalSeats()) {
+                        run.committed.release(index);
+                        run.live.release(index);
+                    }
+                }
+                dirty.add(key);
+            } finally {
+                run.done();
+            }
+        });
+    }
+
+    public int getAvailableSeats(TrainSchedule schedule, LocalDate journeyDate, TravelClass travelClass) {
+        return getBitmap(schedule, journeyDate, travelClass).getAvailableSeats();
+    }
+
+    public SeatBitmap getBitmap(TrainSchedule schedule, LocalDate journeyDate, TravelClass travelClass) {
+        return getBitmap(new InventoryKey(schedule.getId(), journeyDate, travelClass), () -> schedule);
+    }
+
+    /**
+     * Returns the run's bitmap, only resolving the schedule when the run is not yet in memory.
+     */
+    /**
+     * Returns the run's bitmap, only resolving the schedule when the run is not yet in memory.
+     * Runs are checked like {@link #hold} before an inventory entry is created for them.
+     */
+    public SeatBitmap getBitmap(InventoryKey key, Supplier<TrainSchedule> schedule) {
+        checkBookingWindow(key.journeyDate());
+        return getRun(key, () -> checkOperatingDay(schedule.get(), key.journeyDate())).live;
+    }
+
+    private void checkBookingWindow(LocalDate journeyDate) {
+        LocalDate today = LocalDate.now();
+        if (journeyDate.isBefore(today) || journeyDate.isAfter(today.plusDays(bookingWindowDays))) {
+            throw new ResourceNotFoundException("Journey date is outside the booking window");
+        }
+    }
+
+    private static TrainSchedule checkOperatingDay(TrainSchedule schedule, LocalDate journeyDate) {
+        List<String> days = schedule.getOperatingDays();
+        if (days != null && !days.isEmpty()
+                && days.stream().noneMatch(day -> day.trim().equalsIgnoreCase(journeyDate.getDayOfWeek().name()))) {
+            throw new ResourceNotFoundException("Schedule does not run on " + journeyDate);
+        }
+        return schedule;
+    }
+
+    private Run getRun(InventoryKey key, Supplier<TrainSchedule> schedule) {
+        Run run = inventories.get(key);
+        if (run != null) {
+            return run;
+        }
+        // Load outside the map so a slow query never blocks other keys in the same bin
+        Run loaded = load(schedule.get(), key);
+        Run existing = inventories.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Returns the run with one more pending hold, so it cannot be evicted until that hold
+     * completes. A run that is being evicted is waited out and reloaded.
+     */
+    private Run acquire(InventoryKey key, Supplier<TrainSchedule> schedule) {
+        while (true) {
+            Run run = getRun(key, schedule);
+            if (run.acquire()) {
+                return run;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Drops every in-memory run of a schedule after persisting it, so the next access picks up
+     * changed seat counts or coach layout. Runs with holds pending are dropped by a later
+     * {@link #flush()} once those holds complete.
+     */
+    public void evictSchedule(Long scheduleId) {
+        markStale(scheduleId, false);
+    }
+
+    /**
+     * Evicts a changed schedule once the change is visible to the reload. Deleted schedules are
+     * dropped without persisting their runs.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        markStale(event.scheduleId(), event.sourceId() == null);
+    }
+
+    private void markStale(Long scheduleId, boolean discard) {
+        inventories.forEach((key, run) -> {
+            if (key.scheduleId().equals(scheduleId)) {
+                run.discard |= discard;
+                run.stale = true;
+                tryEvict(key, run);
+            }
+        });
+    }
+
+    /**
+     * Removes a stale run if no hold on it is pending. Its committed seats are persisted first so
+     * the next load sees them; if that fails the run stays in memory and is retried on the next
+     * flush.
+     */
+    private boolean tryEvict(InventoryKey key, Run run) {
+        if (!run.retire()) {
+            return false;
+        }
+        if (run.discard) {
+            dirty.remove(key);
+        } else if (dirty.remove(key)) {
+            try {
+                persist(key, run);
+            } catch (RuntimeException e) {
+                dirty.add(key);
+                run.reopen();
+                log.warn("Failed to persist seat inventory {} before eviction: {}", key, e.getMessage());
+                return false;
+            }
+        }
+        inventories.remove(key, run);
+        return true;
+    }
+
+    /**
+     * Drops runs that departed before today. Their rows stay in {@code seat_inventory}; only
+     * bookings for upcoming runs need the bitmaps in memory.
+     */
+    @Scheduled(cron = "${app.inventory.prune-cron:0 15 0 * * *}")
+    public void prunePastRuns() {
+        LocalDate today = LocalDate.now();
+        int pruned = 0;
+        for (var entry : new ArrayList<>(inventories.entrySet())) {
+            if (entry.getKey().journeyDate().isBefore(today)) {
+                entry.getValue().stale = true;
+                if (tryEvict(entry.getKey(), entry.getValue())) {
+                    pruned++;
+                }
+            }
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} past seat inventory runs, {} remain in memory", pruned, inventories.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval-ms:1000}")
+    public void flush() {
+        for (InventoryKey key : new ArrayList<>(dirty)) {
+            dirty.remove(key);
+            Run run = inventories.get(key);
+            if (run == null) {
+                continue;
+            }
+            try {
+                persist(key, run);
+            } catch (RuntimeException e) {
+                dirty.add(key);
+                log.warn("Failed to persist seat inventory {}: {}", key, e.getMessage());
+            }
+        }
+        inventories.forEach((key, run) -> {
+            if (run.stale) {
+                tryEvict(key, run);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void persist(InventoryKey key, Run run) {
+        SeatBitmap bitmap = run.committed;
+        SeatInventory inventory = inventoryRepository
+                .findByScheduleIdAndJourneyDateAndTravelClass(key.scheduleId(), key.journeyDate(), key.travelClass())
+                .orElseGet(() -> SeatInventory.builder()
+                        .scheduleId(key.scheduleId())
+                        .journeyDate(key.journeyDate())
+                        .travelClass(key.travelClass())
+                        .build());
+        inventory.setTotalSeats(bitmap.getTotalSeats());
+        inventory.setAvailableSeats(bitmap.getAvailableSeats());
+        inventory.setSeatBitmap(pack(bitmap.toWords()));
+        inventoryRepository.save(inventory);
+    }
+
+    private Run load(TrainSchedule schedule, InventoryKey key) {
+        int totalSeats = schedule.getTotalSeats() != null ? schedule.getTotalSeats() : 0;
+        int coaches = schedule.getTrain() != null && schedule.getTrain().getTotalCoaches() != null
+                ? schedule.getTrain().getTotalCoaches() : 1;
+        SeatBitmap bitmap = new SeatBitmap(totalSeats, coaches);
+
+        byte[] stored = inventoryRepository
+                .findByScheduleIdAndJourneyDateAndTravelClass(key.scheduleId(), key.journeyDate(), key.travelClass())
+                .map(SeatInventory::getSeatBitmap)
+                .orElse(null);
+        if (stored != null) {
+            bitmap.claimFromWords(unpack(stored));
+            return new Run(bitmap, coaches);
+        }
+
+        // First touch of this run: rebuild from confirmed bookings
+        int unseated = 0;
+        for (String seat : passengerRepository.findBookedSeatNumbers(
+                key.scheduleId(), key.journeyDate().atStartOfDay(), key.travelClass())) {
+            int index = SeatLayout.index(seat);
+            if (index >= 0 && index < totalSeats) {
+                bitmap.claim(index);
+            } else {
+                unseated++;
+            }
+        }
+        if (unseated > 0) {
+            bitmap.claimAny(Math.min(unseated, bitmap.getAvailableSeats()));
+        }
+        return new Run(bitmap, coaches);
+    }
+
+    /**
+     * A run's seats as seen by new holds ({@code live}) and as committed ({@code committed}).
+     * {@code pending} counts holds and releases whose transaction has not completed yet; it is
+     * set to -1 while the run is being evicted so no new hold can land on a detached run.
+     */
+    private static final class Run {
+        private final SeatBitmap live;
+        private final SeatBitmap committed;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean stale;
+        private volatile boolean discard;
+
+        private Run(SeatBitmap committed, int coaches) {
+            this.committed = committed;
+            this.live = new SeatBitmap(committed.getTotalSeats(), coaches);
+            this.live.claimFromWords(committed.toWords());
+        }
+
+        private boolean acquire() {
+            int current;
+            do {
+                current = pending.get();
+                if (current < 0) {
+                    return false;
+                }
+            } while (!pending.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private void done() {
+            pending.decrementAndGet();
+        }
+
+        private boolean retire() {
+            return pending.compareAndSet(0, -1);
+        }
+
+        private void reopen() {
+            pending.set(0);
+        }
+    }
+
+    /**
+     * Seats claimed for a single booking that have not been committed yet.
+     */
+    public final class SeatHold {
+        private final InventoryKey key;
+        private final Run run;
+        private final int[] chosen;
+        private final int[] assigned;
+        private final List<String> seats;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private SeatHold(InventoryKey key, Run run, int[] chosen, int[] assigned, List<String> seats) {
+            this.key = key;
+            this.run = run;
+            this.chosen = chosen;
+            this.assigned = assigned;
+            this.seats = seats;
+        }
+
+        public List<String> getSeats() {
+            return seats;
+        }
+
+        /**
+         * Gives the seats back without ever committing them.
+         */
+        public void release() {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            for (int seat : chosen) {
+                run.live.release(seat);
+            }
+            for (int seat : assigned) {
+                run.live.release(seat);
+            }
+            run.done();
+        }
+
+        public void completeWithTransaction() {
+            runOnCompletion(committed -> {
+                if (!committed) {
+                    release();
+                    return;
+                }
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                for (int seat : chosen) {
+                    run.committed.claim(seat);
+                }
+                for (int seat : assigned) {
+                    run.committed.claim(seat);
+                }
+                dirty.add(key);
+                run.done();
+            });
+        }
+    }
+
+    private static void runOnCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static byte[] pack(long[] words) {
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(words);
+        return buffer.array();
+    }
+
+    private static long[] unpack(byte[] bytes) {
+        long[] words = new long[bytes.length / Long.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words);
+        return words;
+    }
+}
@@ -0,0 +1,244 @@
+// TicketPipeline.java
+package com.local.train.service;
+
+import com.local.train.dto.UserPrincipal;
+import com.local.train.entity.Booking;
+import com.local.train.entity.BookingStatus;
+import com.local.train.entity.TicketStatus;
+import com.local.train.entity.UserRole;
+import com.local.train.event.TicketRequestedEvent;
+import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.exception.ServiceUnavailableException;
+import com.local.train.repository.BookingRepository;
+import com.local.train.security.TicketTokenService;
+import com.local.train.utils.EmailService;
+import com.local.train.utils.PDFGenerator;
+import com.local.train.utils.QRCodeGenerator;
+import com.local.train.utils.Threads;
+import com.local.train.utils.TicketFileStore;
+import com.local.train.utils.TicketFileStore.StoredFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Builds ticket artifacts off the request path: QR code, PDF, {@link TicketFileStore}, then email.
+ *
+ * Work is queued on a bounded executor. When the queue is full the booking simply stays
+ * {@link TicketStatus#PENDING} and the periodic sweep picks it up later, so bursts never block
+ * or fail bookings. Failed steps are retried with exponential backoff; progress is kept on the
+ * booking, so a retry after a failed email does not render the PDF again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketPipeline {
+
+    private static final int QR_SIZE = 200;
+
+    private final BookingRepository bookingRepository;
+    private final QRCodeGenerator qrCodeGenerator;
+    private final PDFGenerator pdfGenerator;
+    private final EmailService emailService;
+    private final TicketFileStore ticketFileStore;
+    private final TicketTokenService ticketTokenService;
+    private final UserCache userCache;
+
+    @Value("${app.ticket.pipeline.workers:2}")
+    private int workerCount;
+
+    @Value("${app.ticket.pipeline.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.ticket.pipeline.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.ticket.pipeline.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    @Value("${app.ticket.pipeline.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Threads.factory("ticket-pipeline-", virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTicketRequested(TicketRequestedEvent event) {
+        submit(event.bookingId());
+    }
+
+    /**
+     * Picks up tickets that were not queued (full queue, restart) or are due for a retry.
+     */
+    @Scheduled(fixedDelayString = "${app.ticket.pipeline.sweep-interval-ms:10000}")
+    public void sweep() {
+        int free = executor.getQueue().remainingCapacity();
+        if (free == 0) {
+            return;
+        }
+        for (Long bookingId : bookingRepository.findTicketsDue(LocalDateTime.now(), Limit.of(free))) {
+            if (!submit(bookingId)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the stored ticket file; if none is ready yet the ticket is (re)queued and a 503
+     * with Retry-After is raised. Only the booking's owner or an admin sees the booking; anyone
+     * else gets a 404, as for a booking that does not exist.
+     */
+    public StoredFile getTicketFile(Long bookingId, String userEmail) {
+        UserPrincipal user = userCache.get(userEmail);
+        Booking booking = (user.role() == UserRole.ADMIN
+                ? bookingRepository.findById(bookingId)
+                : bookingRepository.findByIdAndUserId(bookingId, user.id()))
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found"));
+
+        TicketStatus status = booking.getTicketStatus();
+        if (status == TicketStatus.RENDERED || status == TicketStatus.READY) {
+            StoredFile file = ticketFileStore.find(booking.getTicketPath());
+            if (file != null) {
+                return file;
+            }
+        }
+        if (status != TicketStatus.PENDING) {
+            // Legacy booking, gave up earlier or the file went missing: start over
+            bookingRepository.updateTicketStatus(bookingId, TicketStatus.PENDING, 0, null);
+        }
+        submit(bookingId);
+        throw new ServiceUnavailableException("Ticket is being generated, please retry shortly", retryAfterSeconds);
+    }
+
+    private boolean submit(Long bookingId) {
+        if (!inFlight.add(bookingId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                boolean stale = false;
+                try {
+                    stale = !process(bookingId);
+                } finally {
+                    inFlight.remove(bookingId);
+                }
+                if (stale) {
+                    // The request that changed it was dropped as a duplicate while this one ran
+                    submit(bookingId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Backpressure: leave it PENDING for the sweep
+            inFlight.remove(bookingId);
+            return false;
+        }
+    }
+
+    /**
+     * @return false if the booking changed while its ticket was being processed, so the
+     * ticket has to be processed again
+     */
+    private boolean process(Long bookingId) {
+        Booking booking = bookingRepository.findWithPassengersById(bookingId).orElse(null);
+        if (booking == null) {
+            return true;
+        }
+        TicketStatus status = booking.getTicketStatus();
+        int attempts = booking.getTicketAttempts() != null ? booking.getTicketAttempts() : 0;
+        try {
+            byte[] pdf = null;
+            if (status == null || status == TicketStatus.PENDING) {
+                pdf = render(booking);
+                StoredFile file = ticketFileStore.store(pdf);
+                // Cancelled tickets are re-rendered to show the new status but not emailed
+                status = booking.getStatus() == BookingStatus.CANCELLED ? TicketStatus.READY : TicketStatus.RENDERED;
+                if (bookingRepository.markTicketRendered(bookingId, file.key(), status, booking.getStatus()) == 0) {
+                    discardIfUnused(file.key(), null);
+                    return false;
+                }
+                attempts = 0;
+                discardIfUnused(booking.getTicketPath(), file.key());
+            }
+            if (status == TicketStatus.RENDERED) {
+                if (pdf == null) {
+                    StoredFile file = ticketFileStore.find(booking.getTicketPath());
+                    if (file == null) {
+                        throw new IllegalStateException("Stored ticket missing: " + booking.getTicketPath());
+                    }
+                    pdf = Files.readAllBytes(file.path());
+                }
+                emailService.sendTicketEmail(
+                        booking.getUser().getEmail(),
+                        "Your e-ticket for PNR " + booking.getPnrNumber(),
+                        "Please find your ticket attached. Have a safe journey!",
+                        pdf,
+                        "ticket-" + booking.getPnrNumber() + ".pdf");
+                if (bookingRepository.markTicketSent(bookingId) == 0) {
+                    return false;
+                }
+            }
+        } catch (Exception e) {
+            attempts++;
+            if (attempts >= maxAttempts) {
+                // A stored ticket is still downloadable even if it could never be emailed
+                TicketStatus finalStatus = status == TicketStatus.RENDERED ? TicketStatus.READY : TicketStatus.FAILED;
+                log.error("Giving up on ticket for booking {} after {} attempts", bookingId, attempts, e);
+                bookingRepository.updateTicketStatus(bookingId, finalStatus, attempts, null);
+            } else {
+                long delay = retryBackoffMs << Math.min(attempts - 1, 16);
+                log.warn("Ticket step failed for booking {} (attempt {}): {}", bookingId, attempts, e.getMessage());
+                bookingRepository.updateTicketStatus(bookingId,
+                        status != null ? status : TicketStatus.PENDING, attempts,
+                        LocalDateTime.now().plusNanos(delay * 1_000_000L));
+            }
+        }
+        return true;
+    }
+
+    private byte[] render(Booking booking) throws Exception {
+        // Signed token, so gates can verify the ticket without a PNR lookup
+        String qrData = ticketTokenService.issue(booking);
+        byte[] qrCode = qrCodeGenerator.getQRCodeImage(qrData, QR_SIZE, QR_SIZE);
+        return pdfGenerator.generateTicketPdf(booking, qrCode);
+    }
+
+    private void discardIfUnused(String previousKey, String currentKey) {
+        if (previousKey == null || previousKey.equals(currentKey) || bookingRepository.existsByTicketPath(previousKey)) {
+            return;
+        }
+        try {
+            ticketFileStore.delete(previousKey);
+        } catch (Exception e) {
+            log.warn("Could not delete superseded ticket {}: {}", previousKey, e.getMessage());
+        }
+    }
+}
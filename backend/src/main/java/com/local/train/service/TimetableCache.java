@@ -0,0 +1,117 @@
+// TimetableCache.java
+package com.local.train.service;
+
+import com.local.train.dto.ScheduleSummary;
+import com.local.train.event.ScheduleChangedEvent;
+import com.local.train.repository.TrainScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of schedule search results keyed by (source, destination, day of week).
+ *
+ * Entries are evicted only for the routes a committed {@link ScheduleChangedEvent} touches. A
+ * load that races with an eviction is returned to its caller but not cached, so a stale result
+ * can never outlive the change that invalidated it. Once {@code app.timetable-cache.max-entries}
+ * is reached, each new route evicts the least recently searched one.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimetableCache {
+
+    private final TrainScheduleRepository scheduleRepository;
+
+    @Value("${app.timetable-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.search.max-results:100}")
+    private int maxResults;
+
+    private final ConcurrentHashMap<RouteDay, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private record RouteDay(Long sourceId, Long destinationId, DayOfWeek dayOfWeek) {
+    }
+
+    private static final class Entry {
+        private final List<ScheduleSummary> results;
+        private volatile long lastUsedNanos;
+
+        private Entry(List<ScheduleSummary> results, long now) {
+            this.results = results;
+            this.lastUsedNanos = now;
+        }
+    }
+
+    public List<ScheduleSummary> search(Long sourceId, Long destinationId, DayOfWeek dayOfWeek) {
+        RouteDay key = new RouteDay(sourceId, destinationId, dayOfWeek);
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            cached.lastUsedNanos = System.nanoTime();
+            return cached.results;
+        }
+
+        long loadedAt = generation.get();
+        List<ScheduleSummary> loaded = List.copyOf(scheduleRepository.findScheduleSummaries(
+                sourceId, destinationId, dayOfWeek.name(), Limit.of(maxResults)));
+        if (generation.get() == loadedAt) {
+            if (entries.size() >= maxEntries) {
+                evictLeastRecentlyUsed();
+            }
+            Entry entry = new Entry(loaded, System.nanoTime());
+            // An invalidation between the check and the insert would have missed this entry
+            if (entries.putIfAbsent(key, entry) == null && generation.get() != loadedAt) {
+                entries.remove(key, entry);
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        generation.incrementAndGet();
+        evictRoute(event.previousSourceId(), event.previousDestinationId());
+        evictRoute(event.sourceId(), event.destinationId());
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * One scan over the map, only on a miss while full; cheap next to the query that caused it.
+     */
+    private void evictLeastRecentlyUsed() {
+        RouteDay oldest = null;
+        long oldestUsed = 0;
+        for (var entry : entries.entrySet()) {
+            long used = entry.getValue().lastUsedNanos;
+            if (oldest == null || used - oldestUsed < 0) {
+                oldest = entry.getKey();
+                oldestUsed = used;
+            }
+        }
+        if (oldest != null) {
+            entries.remove(oldest);
+        }
+    }
+
+    private void evictRoute(Long sourceId, Long destinationId) {
+        if (sourceId == null || destinationId == null) {
+            return;
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            entries.remove(new RouteDay(sourceId, destinationId, day));
+        }
+    }
+}
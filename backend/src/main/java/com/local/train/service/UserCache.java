@@ -0,0 +1,119 @@
+// UserCache.java
+package com.local.train.service;
+
+import com.local.train.dto.UserPrincipal;
+import com.local.train.event.UserChangedEvent;
+import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of {@link UserPrincipal} keyed by email.
+ *
+ * Entries live for at most {@code app.user-cache.ttl-seconds} and the map holds at most
+ * {@code app.user-cache.max-entries}. A committed {@link UserChangedEvent} evicts the user; as in
+ * {@link TimetableCache}, a load that races with an eviction is returned but not cached.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.user-cache.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${app.user-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry(UserPrincipal principal, long expiresAtNanos) {
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+
+    public Optional<UserPrincipal> find(String email) {
+        long now = System.nanoTime();
+        Entry cached = entries.get(email);
+        if (cached != null && cached.expiresAtNanos() - now > 0) {
+            hits.increment();
+            return Optional.of(cached.principal());
+        }
+        misses.increment();
+
+        long loadedAt = generation.get();
+        Optional<UserPrincipal> loaded = userRepository.findPrincipalByEmail(email);
+        if (loaded.isEmpty()) {
+            entries.remove(email);
+            return loaded;
+        }
+        if (entries.size() >= maxEntries) {
+            purgeExpired();
+        }
+        if (generation.get() == loadedAt && entries.size() < maxEntries) {
+            Entry entry = new Entry(loaded.get(), now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            entries.put(email, entry);
+            // An invalidation between the check and the put would have missed this entry
+            if (generation.get() != loadedAt) {
+                entries.remove(email, entry);
+            }
+        }
+        return loaded;
+    }
+
+    public UserPrincipal get(String email) {
+        return find(email).orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    public void evict(String email) {
+        generation.incrementAndGet();
+        if (entries.remove(email) != null) {
+            evictions.increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation.incrementAndGet();
+        // Keyed by email, which may itself have changed, so match on id
+        entries.values().removeIf(entry -> {
+            boolean match = entry.principal().id().equals(event.userId());
+            if (match) {
+                evictions.increment();
+            }
+            return match;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-cache.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> entry.expiresAtNanos() - now <= 0);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+}
@@ -0,0 +1,202 @@
+// WalletLedger.java
+package com.local.train.service;
+
+import com.local.train.exception.PaymentFailedException;
+import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.utils.Money;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Append-only wallet ledger with in-memory balances.
+ *
+ * Every balance change is a {@code transactions} row carrying a signed {@code balance_delta};
+ * a wallet's balance is its {@code wallets.balance} snapshot plus the deltas not yet folded into
+ * it. Live balances are kept in memory and mutated under one of a fixed set of striped locks, so
+ * checks and debits on different wallets never contend and need no database round trip.
+ *
+ * Debits are taken immediately and given back if the surrounding transaction rolls back; credits
+ * only become spendable once their transaction commits. {@link #snapshot()} periodically folds
+ * committed deltas into {@code wallets.balance}, off the request path.
+ *
+ * Amounts are in paise, so balances and snapshot sums are exact {@code long} arithmetic.
+ * Balances are authoritative for this process only; all wallet writes must go through it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletLedger {
+
+    private static final int STRIPES = 64;
+
+    private static final String LOAD_BALANCE =
+            "SELECT w.balance + COALESCE((SELECT SUM(t.balance_delta) FROM transactions t " +
+            "WHERE t.wallet_id = w.id AND t.ledger_applied = FALSE), 0) FROM wallets w WHERE w.id = ?";
+    private static final String UNAPPLIED_DELTAS =
+            "SELECT id, balance_delta FROM transactions " +
+            "WHERE wallet_id = ? AND ledger_applied = FALSE AND balance_delta IS NOT NULL";
+    private static final String MARK_APPLIED =
+            "UPDATE transactions SET ledger_applied = TRUE WHERE id = ?";
+    private static final String APPLY_TO_WALLET =
+            "UPDATE wallets SET balance = balance + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock[] stripes = createStripes();
+    private final ConcurrentHashMap<Long, long[]> balances = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    public long getBalance(Long walletId) {
+        long[] balance = account(walletId);
+        ReentrantLock lock = stripe(walletId);
+        lock.lock();
+        try {
+            return balance[0];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes {@code amount} from the wallet or throws if it would go negative. Inside a
+     * transaction, the debit is returned automatically on rollback.
+     */
+    public void debit(Long walletId, long amount) {
+        long[] balance = account(walletId);
+        ReentrantLock lock = stripe(walletId);
+        lock.lock();
+        try {
+            if (balance[0] < amount) {
+                throw new PaymentFailedException("Insufficient funds in wallet. Balance: " + Money.format(balance[0]));
+            }
+            balance[0] -= amount;
+        } finally {
+            lock.unlock();
+        }
+        onCompletion(walletId, committed -> {
+            if (!committed) {
+                add(walletId, balance, amount);
+            }
+        });
+    }
+
+    /**
+     * Adds {@code amount} to the wallet once the surrounding transaction (if any) commits.
+     *
+     * Call this before writing the matching {@code transactions} row: the first touch of a wallet
+     * loads its balance on the current connection, which would otherwise already see the
+     * uncommitted delta and count it twice.
+     */
+    public void credit(Long walletId, long amount) {
+        long[] balance = account(walletId);
+        onCompletion(walletId, committed -> {
+            if (committed) {
+                add(walletId, balance, amount);
+            }
+        });
+    }
+
+    /**
+     * Folds committed deltas of recently touched wallets into {@code wallets.balance}. Rows are
+     * marked by id, so deltas committing concurrently are simply left for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.wallet.snapshot-interval-ms:5000}")
+    public void snapshot() {
+        for (Long walletId : new ArrayList<>(dirty)) {
+            dirty.remove(walletId);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<Object[]> ids = new ArrayList<>();
+                    long[] total = new long[1];
+                    jdbcTemplate.query(UNAPPLIED_DELTAS, rs -> {
+                        total[0] += Money.ofDecimal(rs.getBigDecimal("balance_delta"));
+                        ids.add(new Object[]{rs.getLong("id")});
+                    }, walletId);
+                    if (ids.isEmpty()) {
+                        return;
+                    }
+                    jdbcTemplate.batchUpdate(MARK_APPLIED, ids);
+                    jdbcTemplate.update(APPLY_TO_WALLET, Money.toDecimal(total[0]), walletId);
+                });
+            } catch (RuntimeException e) {
+                dirty.add(walletId);
+                log.warn("Failed to snapshot wallet {}: {}", walletId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private long[] account(Long walletId) {
+        long[] balance = balances.get(walletId);
+        if (balance != null) {
+            return balance;
+        }
+        List<BigDecimal> loaded = jdbcTemplate.queryForList(LOAD_BALANCE, BigDecimal.class, walletId);
+        if (loaded.isEmpty()) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+        long[] created = new long[]{Money.ofDecimal(loaded.get(0))};
+        long[] existing = balances.putIfAbsent(walletId, created);
+        return existing != null ? existing : created;
+    }
+
+    private void add(Long walletId, long[] balance, long amount) {
+        ReentrantLock lock = stripe(walletId);
+        lock.lock();
+        try {
+            balance[0] += amount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onCompletion(Long walletId, Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            dirty.add(walletId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                action.accept(committed);
+                if (committed) {
+                    dirty.add(walletId);
+                }
+            }
+        });
+    }
+
+    private ReentrantLock stripe(Long walletId) {
+        return stripes[(Long.hashCode(walletId) & 0x7fffffff) % STRIPES];
+    }
+}
@@ -2,13 +2,17 @@
 package com.local.train.service;
 
 import com.local.train.dto.AddFundsRequest;
+import com.local.train.dto.UserPrincipal;
 import com.local.train.dto.WalletDto;
 import com.local.train.entity.*;
+import com.local.train.event.UserChangedEvent;
 import com.local.train.repository.TransactionRepository;
 import com.local.train.repository.UserRepository;
 import com.local.train.repository.WalletRepository;
 import com.local.train.exception.ResourceNotFoundException;
+import com.local.train.utils.Money;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,66 +26,72 @@ public class WalletService {
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final WalletLedger walletLedger;
+    private final ApplicationEventPublisher eventPublisher;
     
     public WalletDto getWallet(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        Wallet wallet = walletRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+        UserPrincipal user = userCache.get(email);
+        if (user.walletId() == null) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
         
         return WalletDto.builder()
-                .balance(wallet.getBalance())
-                .userId(user.getId())
+                .balance(Money.toRupees(walletLedger.getBalance(user.walletId())))
+                .userId(user.id())
                 .build();
     }
     
     @Transactional
     public WalletDto addFunds(String email, AddFundsRequest request) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserPrincipal user = userCache.get(email);
         
-        Wallet wallet = walletRepository.findByUserId(user.getId())
-                .orElseGet(() -> {
-                    Wallet newWallet = new Wallet();
-                    newWallet.setUser(user);
-                    newWallet.setBalance(0.0);
-                    return walletRepository.save(newWallet);
-                });
+        Wallet wallet;
+        if (user.walletId() != null) {
+            wallet = walletRepository.getReferenceById(user.walletId());
+        } else {
+            wallet = new Wallet();
+            wallet.setUser(userRepository.getReferenceById(user.id()));
+            wallet = walletRepository.save(wallet);
+            // The cached principal still says there is no wallet
+            eventPublisher.publishEvent(new UserChangedEvent(user.id()));
+        }
         
-        wallet.setBalance(wallet.getBalance() + request.getAmount());
+        long amount = Money.ofRupees(request.getAmount());
         
         // Create transaction
         Transaction transaction = new Transaction();
         transaction.setTransactionId("TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        transaction.setAmount(request.getAmount());
+        transaction.setAmount(amount);
         transaction.setType(TransactionType.CREDIT);
         transaction.setMethod(request.getPaymentMethod());
         transaction.setStatus(PaymentStatus.PAID);
         transaction.setWallet(wallet);
+        transaction.setBalanceDelta(amount);
         transaction.setDescription("Funds added to wallet");
         transaction.setCreatedAt(LocalDateTime.now());
         
+        // Spendable once this transaction commits; registered before the row is written so a
+        // cold ledger load does not already count its delta
+        walletLedger.credit(wallet.getId(), amount);
         transactionRepository.save(transaction);
-        walletRepository.save(wallet);
         
         return WalletDto.builder()
-                .balance(wallet.getBalance())
-                .userId(user.getId())
+                .balance(Money.toRupees(walletLedger.getBalance(wallet.getId()) + amount))
+                .userId(user.id())
                 .build();
     }
     public java.util.List<com.local.train.dto.TransactionResponse> getTransactions(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        Wallet wallet = walletRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+        UserPrincipal user = userCache.get(email);
+        if (user.walletId() == null) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
         
-        return transactionRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId())
+        return transactionRepository.findByWalletIdOrderByCreatedAtDesc(user.walletId())
                 .stream()
                 .map(txn -> com.local.train.dto.TransactionResponse.builder()
                         .transactionId(txn.getTransactionId())
-                        .amount(txn.getAmount())
+                        .amount(Money.toRupees(txn.getAmount()))
                         .type(txn.getType())
                         .method(txn.getMethod())
                         .status(txn.getStatus())
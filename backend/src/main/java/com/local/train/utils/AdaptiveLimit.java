@@ -0,0 +1,70 @@
+// AdaptiveLimit.java
+package com.local.train.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts by AIMD: it grows by roughly one per round of completed requests
+ * while there is no congestion and is cut by {@code backoffRatio} when there is. Cuts happen at most
+ * once per {@code DECREASE_INTERVAL_NANOS}, so one burst of slow responses counts as one signal.
+ */
+public final class AdaptiveLimit {
+
+    private static final long DECREASE_INTERVAL_NANOS = 100_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private long lastDecrease;
+
+    public record Stats(int limit, int inFlight, long rejected) {
+    }
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(this.maxLimit, initialLimit));
+        this.lastDecrease = System.nanoTime() - DECREASE_INTERVAL_NANOS;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param congested whether the request that held this permit saw the backend struggling
+     */
+    public void release(boolean congested) {
+        int before = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (congested) {
+                long now = System.nanoTime();
+                if (now - lastDecrease >= DECREASE_INTERVAL_NANOS) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecrease = now;
+                }
+            } else if (before * 2 >= limit) {
+                // Only grow while the current limit is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats((int) limit, inFlight.get(), rejected.sum());
+    }
+}
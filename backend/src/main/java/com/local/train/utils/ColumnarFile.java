@@ -0,0 +1,254 @@
+// ColumnarFile.java
+package com.local.train.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Minimal columnar file: a fixed number of rows stored as one contiguous little-endian block of
+ * {@code int} or {@code long} values per column, in the spirit of an Arrow IPC file without the
+ * dependency.
+ *
+ * Layout: magic, version, row count, column count, then a directory of (name, type, offset, labels)
+ * entries, then the 8-byte aligned column blocks, then a CRC32 of everything before it. Reading maps
+ * the file and bulk-copies each block into a primitive array, so queries scan plain
+ * {@code int[]}/{@code long[]}.
+ *
+ * An {@code int} column may carry a label dictionary: its values are then indexes into that list,
+ * so codes stay meaningful when the source enum is reordered or extended.
+ */
+public final class ColumnarFile {
+
+    private static final int MAGIC = 0x4C544346; // "LTCF"
+    private static final int VERSION = 2;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+
+    private ColumnarFile() {
+    }
+
+    /**
+     * Columns of one file, in file order. Values are {@code int[]} or {@code long[]} of equal length;
+     * {@code dictionaries} holds the labels of dictionary-encoded columns.
+     */
+    public record Table(int rows, Map<String, Object> columns, Map<String, List<String>> dictionaries) {
+
+        public Table(int rows, Map<String, Object> columns) {
+            this(rows, columns, Map.of());
+        }
+
+        public int[] ints(String name) {
+            return (int[]) column(name);
+        }
+
+        public long[] longs(String name) {
+            return (long[]) column(name);
+        }
+
+        /**
+         * @return the labels that the codes of a dictionary-encoded column index; empty when the
+         * column has no rows or is not dictionary-encoded
+         */
+        public List<String> labels(String name) {
+            column(name);
+            return dictionaries.getOrDefault(name, List.of());
+        }
+
+        private Object column(String name) {
+            Object column = columns.get(name);
+            if (column == null) {
+                throw new IllegalArgumentException("No column " + name);
+            }
+            return column;
+        }
+    }
+
+    public static void write(Path file, Table table) throws IOException {
+        int rows = table.rows();
+        byte[][] names = new byte[table.columns().size()][];
+        byte[][][] labels = new byte[names.length][][];
+        int headerSize = 16;
+        int index = 0;
+        for (Map.Entry<String, Object> column : table.columns().entrySet()) {
+            int length = column.getValue() instanceof int[] ints ? ints.length : ((long[]) column.getValue()).length;
+            if (length != rows) {
+                throw new IllegalArgumentException("Column " + column.getKey() + " has " + length + " rows, expected " + rows);
+            }
+            names[index] = column.getKey().getBytes(StandardCharsets.UTF_8);
+            List<String> dictionary = table.dictionaries().getOrDefault(column.getKey(), List.of());
+            labels[index] = new byte[dictionary.size()][];
+            headerSize += 2 + names[index].length + 1 + 8 + 2;
+            for (int i = 0; i < dictionary.size(); i++) {
+                labels[index][i] = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+                headerSize += 2 + labels[index][i].length;
+            }
+            index++;
+        }
+
+        long offset = align(headerSize);
+        long[] offsets = new long[names.length];
+        index = 0;
+        for (Object values : table.columns().values()) {
+            offsets[index++] = offset;
+            offset = align(offset + (long) rows * (values instanceof int[] ? Integer.BYTES : Long.BYTES));
+        }
+        long dataEnd = offset;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataEnd + Integer.BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(names.length);
+            index = 0;
+            for (Object values : table.columns().values()) {
+                buffer.putShort((short) names[index].length).put(names[index]);
+                buffer.put(values instanceof int[] ? INT : LONG).putLong(offsets[index]);
+                buffer.putShort((short) labels[index].length);
+                for (byte[] label : labels[index]) {
+                    buffer.putShort((short) label.length).put(label);
+                }
+                index++;
+            }
+            index = 0;
+            for (Object values : table.columns().values()) {
+                buffer.position((int) offsets[index++]);
+                if (values instanceof int[] ints) {
+                    buffer.asIntBuffer().put(ints);
+                } else {
+                    buffer.asLongBuffer().put((long[]) values);
+                }
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) dataEnd));
+            buffer.putInt((int) dataEnd, (int) crc.getValue());
+            buffer.force();
+        }
+    }
+
+    public static Table read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 20 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a columnar file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int dataEnd = (int) size - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, dataEnd));
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(dataEnd) != (int) crc.getValue()) {
+                throw new IOException("Corrupt or unsupported columnar file: " + file);
+            }
+
+            int rows = buffer.getInt(8);
+            int count = buffer.getInt(12);
+            buffer.position(16);
+            Map<String, Object> columns = new LinkedHashMap<>();
+            Map<String, List<String>> dictionaries = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                byte[] nameBytes = new byte[buffer.getShort()];
+                buffer.get(nameBytes);
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+                byte type = buffer.get();
+                int offset = (int) buffer.getLong();
+                int labelCount = buffer.getShort();
+                if (labelCount > 0) {
+                    List<String> labels = new ArrayList<>(labelCount);
+                    for (int label = 0; label < labelCount; label++) {
+                        byte[] labelBytes = new byte[buffer.getShort()];
+                        buffer.get(labelBytes);
+                        labels.add(new String(labelBytes, StandardCharsets.UTF_8));
+                    }
+                    dictionaries.put(name, List.copyOf(labels));
+                }
+                ByteBuffer block = buffer.slice(offset, dataEnd - offset).order(ByteOrder.LITTLE_ENDIAN);
+                Object values;
+                if (type == INT) {
+                    int[] ints = new int[rows];
+                    block.asIntBuffer().get(ints);
+                    values = ints;
+                } else if (type == LONG) {
+                    long[] longs = new long[rows];
+                    block.asLongBuffer().get(longs);
+                    values = longs;
+                } else {
+                    throw new IOException("Unknown column type " + type + " in " + file);
+                }
+                columns.put(name, values);
+            }
+            return new Table(rows, columns, dictionaries);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Growable primitive column used while a table is being built.
+     */
+    public static final class IntColumn {
+        private int[] values = new int[1024];
+        private int size;
+
+        public void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Int column whose values are codes into a label dictionary, assigned in first-seen order.
+     */
+    public static final class DictionaryColumn {
+        private final IntColumn codes = new IntColumn();
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        public void add(String label) {
+            codes.add(dictionary.computeIfAbsent(label, ignored -> dictionary.size()));
+        }
+
+        public int[] toArray() {
+            return codes.toArray();
+        }
+
+        public List<String> labels() {
+            return List.copyOf(dictionary.keySet());
+        }
+    }
+
+    public static final class LongColumn {
+        private long[] values = new long[1024];
+        private int size;
+
+        public void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
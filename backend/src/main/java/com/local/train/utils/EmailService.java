@@ -1,12 +1,12 @@
 // EmailService.java
 package com.local.train.utils;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -15,21 +15,19 @@ public class EmailService {
 
     private final JavaMailSender mailSender;
 
-    @Async
-    public void sendTicketEmail(String to, String subject, String body, byte[] attachment, String fileName) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
+    /**
+     * Sends synchronously and fails loudly so callers can retry; run it off the request path.
+     */
+    public void sendTicketEmail(String to, String subject, String body, byte[] attachment, String fileName)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
 
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body);
-            helper.addAttachment(fileName, new ByteArrayResource(attachment));
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(body);
+        helper.addAttachment(fileName, new ByteArrayResource(attachment));
 
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Log error
-            System.err.println("Failed to send email: " + e.getMessage());
-        }
+        mailSender.send(message);
     }
 }
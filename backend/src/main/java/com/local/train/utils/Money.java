@@ -0,0 +1,69 @@
+// Money.java
+package com.local.train.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money helpers. Amounts are held as {@code long} paise (1/100 rupee) so that sums
+ * and comparisons are exact; rupee {@code double}s only appear at the API boundary.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long ofRupees(double rupees) {
+        return Math.round(rupees * 100.0);
+    }
+
+    public static long ofRupees(Double rupees) {
+        return rupees != null ? ofRupees(rupees.doubleValue()) : 0L;
+    }
+
+    public static double toRupees(long paise) {
+        return paise / 100.0;
+    }
+
+    /**
+     * Exact conversion from a DECIMAL (or legacy DOUBLE) column value; {@code null} is zero.
+     */
+    public static long ofDecimal(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0L;
+        }
+        return rupees.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long paise) {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    public static long times(long paise, int quantity) {
+        return Math.multiplyExact(paise, quantity);
+    }
+
+    /**
+     * Scales an amount by a non-integral factor such as a class multiplier, rounding half up to
+     * the nearest paisa.
+     */
+    public static long scale(long paise, double factor) {
+        return Math.round(paise * factor);
+    }
+
+    public static long sum(long[] amounts) {
+        long total = 0;
+        for (long amount : amounts) {
+            total = Math.addExact(total, amount);
+        }
+        return total;
+    }
+
+    public static String format(long paise) {
+        String sign = paise < 0 ? "-" : "";
+        long abs = Math.abs(paise);
+        return sign + (abs / 100) + "." + (abs % 100 < 10 ? "0" : "") + (abs % 100);
+    }
+}
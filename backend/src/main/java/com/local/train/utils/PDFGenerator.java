@@ -1,90 +1,221 @@
 // PDFGenerator.java
 package com.local.train.utils;
 
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.colors.Color;
 import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Image;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
-import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.local.train.entity.Booking;
 import com.local.train.entity.Passenger;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
+/**
+ * Renders e-tickets from a precompiled template.
+ *
+ * Everything that is the same on every ticket (title, labels, grid lines, table header and the
+ * instructions footer) is drawn once into a template page at startup. Each ticket copies that
+ * page in as a single form XObject and stamps the booking fields and QR code at fixed positions
+ * with raw text operators, so no layout engine runs per ticket. Font programs are parsed once
+ * and only bound to each output document.
+ *
+ * The template has room for {@value #MAX_PASSENGER_ROWS} passengers; larger bookings continue on
+ * plain pages that list the remaining passengers under the PNR.
+ *
+ * Throughput target: 200 tickets/s per core; see {@code PDFGeneratorBenchmark}.
+ */
 @Component
 public class PDFGenerator {
 
+    private static final PageSize PAGE = PageSize.A4;
+    private static final float LEFT = 46;
+    private static final float MIDDLE = 305;
+    private static final float VALUE_OFFSET = 52;
+    private static final float[] INFO_ROWS = {740, 722, 704};
+    private static final float QR_SIZE = 100;
+    private static final float QR_Y = 585;
+    private static final float PASSENGER_HEADER_Y = 525;
+    private static final float PASSENGER_FIRST_ROW_Y = 507;
+    private static final float PASSENGER_ROW_HEIGHT = 18;
+    private static final int MAX_PASSENGER_ROWS = 9;
+    private static final float CONTINUED_NOTE_Y = PASSENGER_FIRST_ROW_Y - MAX_PASSENGER_ROWS * PASSENGER_ROW_HEIGHT;
+    private static final float CONTINUATION_TITLE_Y = 790;
+    private static final float CONTINUATION_HEADER_Y = 740;
+    private static final int CONTINUATION_ROWS = 36;
+    private static final float[] PASSENGER_COLUMNS = {LEFT, 256, 413};
+    private static final float FARE_Y = 302;
+    private static final float FARE_VALUE_X = LEFT + 62;
+
+    private final FontProgram regular;
+    private final FontProgram bold;
+    private final FontProgram italic;
+    private final byte[] template;
+
+    public PDFGenerator() {
+        try {
+            regular = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            bold = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+            italic = FontProgramFactory.createFont(StandardFonts.HELVETICA_OBLIQUE);
+            template = buildTemplate();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare ticket template", e);
+        }
+    }
+
     public byte[] generateTicketPdf(Booking booking, byte[] qrCode) throws Exception {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdfDoc = new PdfDocument(writer);
-            Document document = new Document(pdfDoc);
-
-            // Title
-            document.add(new Paragraph("LOCAL TRAIN E-TICKET")
-                    .setBold().setFontSize(22).setFontColor(ColorConstants.BLUE)
-                    .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph("\n"));
-
-            // Main Info Table
-            Table mainInfo = new Table(UnitValue.createPercentArray(new float[]{50, 50})).useAllAvailableWidth();
-            mainInfo.addCell(new Paragraph("PNR: " + booking.getPnrNumber()).setBold());
-            mainInfo.addCell(new Paragraph("Status: " + booking.getStatus()).setBold());
-            mainInfo.addCell("Date: " + booking.getJourneyDate().toLocalDate());
-            mainInfo.addCell("Class: " + booking.getTravelClass());
-            mainInfo.addCell("From: " + booking.getSchedule().getSourceStation().getStationName());
-            mainInfo.addCell("To: " + booking.getSchedule().getDestinationStation().getStationName());
-            document.add(mainInfo);
-
-            // Add QR Code
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream(16 * 1024)) {
+            PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+            PdfPage page = pdfDoc.addNewPage(PAGE);
+            PdfCanvas canvas = new PdfCanvas(page);
+
+            PdfDocument templateDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(template)));
+            PdfFormXObject staticLayer = templateDoc.getFirstPage().copyAsFormXObject(pdfDoc);
+            templateDoc.close();
+            canvas.addXObjectAt(staticLayer, 0, 0);
+
+            PdfFont valueFont = font(regular);
+            PdfFont boldFont = font(bold);
+
+            text(canvas, boldFont, 11, LEFT + VALUE_OFFSET, INFO_ROWS[0], booking.getPnrNumber());
+            text(canvas, boldFont, 11, MIDDLE + VALUE_OFFSET, INFO_ROWS[0], String.valueOf(booking.getStatus()));
+            text(canvas, valueFont, 11, LEFT + VALUE_OFFSET, INFO_ROWS[1], booking.getJourneyDate().toLocalDate().toString());
+            text(canvas, valueFont, 11, MIDDLE + VALUE_OFFSET, INFO_ROWS[1], String.valueOf(booking.getTravelClass()));
+            text(canvas, valueFont, 11, LEFT + VALUE_OFFSET, INFO_ROWS[2],
+                    booking.getSchedule().getSourceStation().getStationName());
+            text(canvas, valueFont, 11, MIDDLE + VALUE_OFFSET, INFO_ROWS[2],
+                    booking.getSchedule().getDestinationStation().getStationName());
+
             if (qrCode != null) {
-                Image image = new Image(ImageDataFactory.create(qrCode));
-                image.setWidth(100);
-                image.setHeight(100);
-                image.setHorizontalAlignment(com.itextpdf.layout.properties.HorizontalAlignment.CENTER);
-                document.add(new Paragraph("\n"));
-                document.add(image);
-                document.add(new Paragraph("Scan for Verification")
-                        .setTextAlignment(TextAlignment.CENTER).setFontSize(8));
+                canvas.addImageFittedIntoRectangle(ImageDataFactory.create(qrCode),
+                        new Rectangle((PAGE.getWidth() - QR_SIZE) / 2, QR_Y, QR_SIZE, QR_SIZE), false);
+            }
+
+            List<Passenger> passengers = booking.getPassengers() != null ? booking.getPassengers() : List.of();
+            int rows = Math.min(passengers.size(), MAX_PASSENGER_ROWS);
+            passengerRows(canvas, valueFont, passengers, 0, rows, PASSENGER_FIRST_ROW_Y);
+            if (passengers.size() > rows) {
+                text(canvas, font(italic), 9, PASSENGER_COLUMNS[0], CONTINUED_NOTE_Y,
+                        (passengers.size() - rows) + " more passengers continued on the next page");
             }
 
-            // Passenger Details
-            document.add(new Paragraph("\nPassenger Details:").setBold());
-            Table passengerTable = new Table(UnitValue.createPercentArray(new float[]{40, 30, 30})).useAllAvailableWidth();
-            passengerTable.addHeaderCell("Name");
-            passengerTable.addHeaderCell("Age");
-            passengerTable.addHeaderCell("Gender");
-
-            for (Passenger passenger : booking.getPassengers()) {
-                passengerTable.addCell(passenger.getName());
-                passengerTable.addCell(String.valueOf(passenger.getAge()));
-                passengerTable.addCell(passenger.getGender());
+            text(canvas, boldFont, 11, FARE_VALUE_X, FARE_Y, "Rs. " + Money.format(booking.getTotalFare()));
+
+            for (int from = rows; from < passengers.size(); from += CONTINUATION_ROWS) {
+                PdfCanvas continuation = new PdfCanvas(pdfDoc.addNewPage(PAGE));
+                text(continuation, boldFont, 14, LEFT, CONTINUATION_TITLE_Y,
+                        "PNR " + booking.getPnrNumber() + " - Passenger Details (continued)");
+                text(continuation, boldFont, 10, PASSENGER_COLUMNS[0], CONTINUATION_HEADER_Y, "Name");
+                text(continuation, boldFont, 10, PASSENGER_COLUMNS[1], CONTINUATION_HEADER_Y, "Age");
+                text(continuation, boldFont, 10, PASSENGER_COLUMNS[2], CONTINUATION_HEADER_Y, "Gender");
+                rule(continuation, ColorConstants.GRAY, LEFT - 10, CONTINUATION_HEADER_Y - 5,
+                        PAGE.getWidth() - LEFT + 10, CONTINUATION_HEADER_Y - 5);
+                passengerRows(continuation, valueFont, passengers, from,
+                        Math.min(from + CONTINUATION_ROWS, passengers.size()), CONTINUATION_HEADER_Y - PASSENGER_ROW_HEIGHT);
+            }
+
+            pdfDoc.close();
+            return baos.toByteArray();
+        }
+    }
+
+    private byte[] buildTemplate() throws IOException {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+            PdfCanvas canvas = new PdfCanvas(pdfDoc.addNewPage(PAGE));
+            PdfFont regularFont = font(regular);
+            PdfFont boldFont = font(bold);
+            PdfFont italicFont = font(italic);
+            float width = PAGE.getWidth();
+
+            String title = "LOCAL TRAIN E-TICKET";
+            canvas.setFillColor(ColorConstants.BLUE);
+            text(canvas, boldFont, 22, (width - boldFont.getWidth(title, 22)) / 2, 790, title);
+            canvas.setFillColor(ColorConstants.BLACK);
+
+            // Main info grid
+            rule(canvas, ColorConstants.GRAY, LEFT - 10, 760, width - LEFT + 10, 760);
+            rule(canvas, ColorConstants.GRAY, LEFT - 10, 698, width - LEFT + 10, 698);
+            String[][] labels = {{"PNR:", "Status:"}, {"Date:", "Class:"}, {"From:", "To:"}};
+            for (int row = 0; row < labels.length; row++) {
+                text(canvas, boldFont, 11, LEFT, INFO_ROWS[row], labels[row][0]);
+                text(canvas, boldFont, 11, MIDDLE, INFO_ROWS[row], labels[row][1]);
             }
-            document.add(passengerTable);
 
-            // Fare Details
-            document.add(new Paragraph("\nFare Details:").setBold());
-            document.add(new Paragraph("Total Fare: ₹" + String.format("%.2f", booking.getTotalFare())));
+            String scan = "Scan for Verification";
+            text(canvas, regularFont, 8, (width - regularFont.getWidth(scan, 8)) / 2, QR_Y - 12, scan);
+
+            // Passenger table header
+            text(canvas, boldFont, 12, LEFT, 545, "Passenger Details:");
+            text(canvas, boldFont, 10, PASSENGER_COLUMNS[0], PASSENGER_HEADER_Y, "Name");
+            text(canvas, boldFont, 10, PASSENGER_COLUMNS[1], PASSENGER_HEADER_Y, "Age");
+            text(canvas, boldFont, 10, PASSENGER_COLUMNS[2], PASSENGER_HEADER_Y, "Gender");
+            rule(canvas, ColorConstants.GRAY, LEFT - 10, PASSENGER_HEADER_Y - 5, width - LEFT + 10, PASSENGER_HEADER_Y - 5);
+
+            text(canvas, boldFont, 12, LEFT, FARE_Y + 18, "Fare Details:");
+            text(canvas, regularFont, 11, LEFT, FARE_Y, "Total Fare:");
 
             // Footer
-            document.add(new Paragraph("\n\nImportant Instructions:")
-                    .setFontSize(10).setItalic());
-            document.add(new Paragraph("1. This is a computer-generated ticket and does not require a physical signature.")
-                    .setFontSize(9));
-            document.add(new Paragraph("2. Please carry a valid original Photo ID proof during the journey.")
-                    .setFontSize(9));
-            document.add(new Paragraph("3. Cancellation is allowed only up to 3 hours before the scheduled journey.")
-                    .setFontSize(9));
-
-            document.close();
+            text(canvas, italicFont, 10, LEFT, 260, "Important Instructions:");
+            text(canvas, regularFont, 9, LEFT, 245,
+                    "1. This is a computer-generated ticket and does not require a physical signature.");
+            text(canvas, regularFont, 9, LEFT, 232,
+                    "2. Please carry a valid original Photo ID proof during the journey.");
+            text(canvas, regularFont, 9, LEFT, 219,
+                    "3. Cancellation is allowed only up to 3 hours before the scheduled journey.");
+
+            pdfDoc.close();
             return baos.toByteArray();
         }
     }
+
+    private static void passengerRows(PdfCanvas canvas, PdfFont font, List<Passenger> passengers,
+                                      int from, int to, float firstRowY) {
+        for (int i = from; i < to; i++) {
+            float y = firstRowY - (i - from) * PASSENGER_ROW_HEIGHT;
+            Passenger passenger = passengers.get(i);
+            text(canvas, font, 10, PASSENGER_COLUMNS[0], y, passenger.getName());
+            text(canvas, font, 10, PASSENGER_COLUMNS[1], y, String.valueOf(passenger.getAge()));
+            text(canvas, font, 10, PASSENGER_COLUMNS[2], y, passenger.getGender());
+        }
+    }
+
+    private static PdfFont font(FontProgram program) {
+        return PdfFontFactory.createFont(program, PdfEncodings.WINANSI);
+    }
+
+    private static void text(PdfCanvas canvas, PdfFont font, float size, float x, float y, String value) {
+        canvas.beginText()
+                .setFontAndSize(font, size)
+                .moveText(x, y)
+                .showText(value != null ? value : "")
+                .endText();
+    }
+
+    private static void rule(PdfCanvas canvas, Color color, float x1, float y1, float x2, float y2) {
+        canvas.saveState()
+                .setStrokeColor(color)
+                .setLineWidth(0.5f)
+                .moveTo(x1, y1)
+                .lineTo(x2, y2)
+                .stroke()
+                .restoreState();
+    }
 }
@@ -2,32 +2,155 @@
 package com.local.train.utils;
 
 import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 
+/**
+ * QR code rendering to 1-bit grayscale PNG.
+ *
+ * The PNG is written straight from the {@link BitMatrix}: rows are packed eight pixels to a byte
+ * and deflated, with no {@code BufferedImage} or ImageIO in between. Encoder, deflater, CRC and
+ * row buffers are reused per thread, and recent results are kept in a bounded LRU cache keyed by
+ * payload and size, so re-rendering the same ticket costs a map lookup.
+ *
+ * Returned arrays may be shared between callers and must not be modified.
+ */
 @Component
 public class QRCodeGenerator {
 
-    public void generateQRCodeImage(String text, int width, int height, String filePath) throws Exception {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(
+            EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name(),
+            EncodeHintType.MARGIN, 4);
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final Map<CacheKey, byte[]> cache;
 
-        Path path = FileSystems.getDefault().getPath(filePath);
-        MatrixToImageWriter.writeToPath(bitMatrix, "PNG", path);
+    public QRCodeGenerator(@Value("${app.qr.cache-size:1024}") int cacheSize) {
+        this.cache = new LinkedHashMap<>(Math.max(16, cacheSize * 4 / 3 + 1), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    private record CacheKey(String text, int width, int height) {
+    }
+
+    /**
+     * Per-thread reusable state; nothing here escapes a single call.
+     */
+    private static final class Scratch {
+        final QRCodeWriter writer = new QRCodeWriter();
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final CRC32 crc = new CRC32();
+        BitArray row = new BitArray(0);
+        byte[] raw = new byte[0];
+        byte[] compressed = new byte[4096];
+    }
+
+    public void generateQRCodeImage(String text, int width, int height, String filePath) throws Exception {
+        Files.write(Paths.get(filePath), getQRCodeImage(text, width, height));
     }
 
     public byte[] getQRCodeImage(String text, int width, int height) throws Exception {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
+        CacheKey key = new CacheKey(text, width, height);
+        synchronized (cache) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] png = render(text, width, height);
+        synchronized (cache) {
+            cache.put(key, png);
+        }
+        return png;
+    }
+
+    private byte[] render(String text, int width, int height) throws WriterException {
+        Scratch s = scratch.get();
+        BitMatrix matrix = s.writer.encode(text, BarcodeFormat.QR_CODE, width, height, HINTS);
+        int w = matrix.getWidth();
+        int h = matrix.getHeight();
+
+        // Scanlines: one filter byte (0 = none) then w bits, 1 = white
+        int stride = 1 + (w + 7) / 8;
+        int rawLength = stride * h;
+        if (s.raw.length < rawLength) {
+            s.raw = new byte[rawLength];
+        }
+        byte[] raw = s.raw;
+        Arrays.fill(raw, 0, rawLength, (byte) 0);
+        for (int y = 0; y < h; y++) {
+            BitArray row = s.row = matrix.getRow(y, s.row);
+            int offset = y * stride + 1;
+            for (int x = 0; x < w; x++) {
+                if (!row.get(x)) {
+                    raw[offset + (x >>> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+
+        Deflater deflater = s.deflater;
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == s.compressed.length) {
+                s.compressed = Arrays.copyOf(s.compressed, s.compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(s.compressed, compressedLength, s.compressed.length - compressedLength);
+        }
+
+        byte[] png = new byte[PNG_SIGNATURE.length + (12 + 13) + (12 + compressedLength) + 12];
+        System.arraycopy(PNG_SIGNATURE, 0, png, 0, PNG_SIGNATURE.length);
+        int position = PNG_SIGNATURE.length;
+
+        byte[] header = new byte[13];
+        putInt(header, 0, w);
+        putInt(header, 4, h);
+        header[8] = 1; // bit depth
+        header[9] = 0; // grayscale
+        position = chunk(png, position, IHDR, header, 13, s.crc);
+        position = chunk(png, position, IDAT, s.compressed, compressedLength, s.crc);
+        chunk(png, position, IEND, header, 0, s.crc);
+        return png;
+    }
+
+    private static int chunk(byte[] out, int position, byte[] type, byte[] data, int length, CRC32 crc) {
+        putInt(out, position, length);
+        System.arraycopy(type, 0, out, position + 4, 4);
+        System.arraycopy(data, 0, out, position + 8, length);
+        crc.reset();
+        crc.update(out, position + 4, 4 + length);
+        putInt(out, position + 8 + length, (int) crc.getValue());
+        return position + 12 + length;
+    }
 
-        ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", pngOutputStream);
-        return pngOutputStream.toByteArray();
+    private static void putInt(byte[] out, int position, int value) {
+        out[position] = (byte) (value >>> 24);
+        out[position + 1] = (byte) (value >>> 16);
+        out[position + 2] = (byte) (value >>> 8);
+        out[position + 3] = (byte) value;
     }
 }
@@ -0,0 +1,137 @@
+// ReportExportWriter.java
+package com.local.train.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes report rows one at a time as CSV or newline-delimited JSON, so an export never holds
+ * more than the current row and the output buffer in memory.
+ *
+ * Values are written from explicit {@link Column}s rather than by bean introspection; numbers
+ * stay numbers in NDJSON, enums are written by name and everything else with {@code toString()}.
+ */
+public final class ReportExportWriter<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    public record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private final List<Column<T>> columns;
+    private final Writer csv;
+    private final JsonGenerator json;
+
+    private ReportExportWriter(List<Column<T>> columns, Writer csv, JsonGenerator json) {
+        this.columns = columns;
+        this.csv = csv;
+        this.json = json;
+    }
+
+    public static <T> ReportExportWriter<T> open(Format format, List<Column<T>> columns, JsonFactory factory,
+                                                 OutputStream out) throws IOException {
+        if (format == Format.NDJSON) {
+            JsonGenerator json = factory.createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            return new ReportExportWriter<>(columns, null, json);
+        }
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ReportExportWriter<T> writer = new ReportExportWriter<>(columns, csv, null);
+        for (int i = 0; i < columns.size(); i++) {
+            writer.writeCsvValue(i, columns.get(i).name());
+        }
+        csv.write("\r\n");
+        return writer;
+    }
+
+    public void write(T row) throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            for (Column<T> column : columns) {
+                Object value = column.value().apply(row);
+                json.writeFieldName(column.name());
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    json.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    json.writeNumber(number.longValue());
+                } else {
+                    json.writeString(text(value));
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            return;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = columns.get(i).value().apply(row);
+            writeCsvValue(i, value != null ? text(value) : "");
+        }
+        csv.write("\r\n");
+    }
+
+    /**
+     * Flushes buffered output; the underlying stream is left open for the container to close.
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        } else {
+            csv.flush();
+        }
+    }
+
+    /**
+     * Enums are written by name, matching the JSON API, even where {@code toString()} is overridden.
+     */
+    private static String text(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : value.toString();
+    }
+
+    private void writeCsvValue(int index, String value) throws IOException {
+        if (index > 0) {
+            csv.write(',');
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+}
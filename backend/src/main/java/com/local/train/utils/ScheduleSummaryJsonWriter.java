@@ -0,0 +1,60 @@
+// ScheduleSummaryJsonWriter.java
+package com.local.train.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.local.train.dto.ScheduleSummary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes schedule search rows straight to the response stream with a Jackson generator, skipping
+ * bean introspection and the intermediate byte[] of a regular message converter.
+ */
+public final class ScheduleSummaryJsonWriter {
+
+    private ScheduleSummaryJsonWriter() {
+    }
+
+    public static void write(JsonFactory factory, OutputStream out, List<ScheduleSummary> rows, int limit)
+            throws IOException {
+        try (JsonGenerator json = factory.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            int count = Math.min(rows.size(), limit);
+            for (int i = 0; i < count; i++) {
+                ScheduleSummary row = rows.get(i);
+                json.writeStartObject();
+                writeNumber(json, "id", row.getId());
+                json.writeStringField("trainNumber", row.getTrainNumber());
+                json.writeStringField("trainName", row.getTrainName());
+                json.writeStringField("sourceStation", row.getSourceStation());
+                json.writeStringField("destinationStation", row.getDestinationStation());
+                writeTime(json, "departureTime", row.getDepartureTime());
+                writeTime(json, "arrivalTime", row.getArrivalTime());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private static void writeNumber(JsonGenerator json, String field, Number value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value.longValue());
+        }
+    }
+
+    private static void writeTime(JsonGenerator json, String field, LocalTime value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeStringField(field, DateTimeFormatter.ISO_LOCAL_TIME.format(value));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+// SeatBitmap.java
+package com.local.train.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free seat occupancy map for one train run. Each coach owns its own word array so
+ * concurrent claims on different coaches never touch the same cache line, and every
+ * claim/release is a single compare-and-set on the word holding the seat bit.
+ */
+public final class SeatBitmap {
+
+    private final int totalSeats;
+    private final int seatsPerCoach;
+    private final AtomicLongArray[] coaches;
+    private final AtomicInteger available;
+
+    public SeatBitmap(int totalSeats, int coachCount) {
+        if (totalSeats < 0) {
+            throw new IllegalArgumentException("Total seats must not be negative");
+        }
+        int coachesNeeded = Math.max(1, Math.min(coachCount, Math.max(totalSeats, 1)));
+        this.totalSeats = totalSeats;
+        this.seatsPerCoach = Math.max(1, (totalSeats + coachesNeeded - 1) / coachesNeeded);
+        this.coaches = new AtomicLongArray[coachesNeeded];
+        for (int c = 0; c < coachesNeeded; c++) {
+            int seatsInCoach = Math.max(0, Math.min(seatsPerCoach, totalSeats - c * seatsPerCoach));
+            coaches[c] = new AtomicLongArray((seatsInCoach + 63) >>> 6);
+        }
+        this.available = new AtomicInteger(totalSeats);
+    }
+
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+
+    public int getAvailableSeats() {
+        return available.get();
+    }
+
+    public boolean isTaken(int seat) {
+        checkSeat(seat);
+        int local = seat % seatsPerCoach;
+        return (coaches[seat / seatsPerCoach].get(local >>> 6) & (1L << local)) != 0;
+    }
+
+    /**
+     * Atomically marks a single seat as taken.
+     *
+     * @return false if the seat was already taken
+     */
+    public boolean claim(int seat) {
+        checkSeat(seat);
+        AtomicLongArray words = coaches[seat / seatsPerCoach];
+        int local = seat % seatsPerCoach;
+        int word = local >>> 6;
+        long mask = 1L << local;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                available.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically frees a single seat.
+     *
+     * @return false if the seat was not taken
+     */
+    public boolean release(int seat) {
+        checkSeat(seat);
+        AtomicLongArray words = coaches[seat / seatsPerCoach];
+        int local = seat % seatsPerCoach;
+        int word = local >>> 6;
+        long mask = 1L << local;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current & ~mask)) {
+                available.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claims every listed seat or none of them.
+     *
+     * @return true if all seats were claimed
+     */
+    public boolean claimAll(int[] seats) {
+        for (int i = 0; i < seats.length; i++) {
+            if (seats[i] < 0 || seats[i] >= totalSeats || !claim(seats[i])) {
+                for (int j = 0; j < i; j++) {
+                    release(seats[j]);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Claims {@code count} free seats, preferring to keep them in one coach. The starting coach
+     * is randomised so concurrent callers spread across coaches instead of racing on coach 0.
+     *
+     * @return the claimed seat indexes, or null if not enough seats were free
+     */
+    public int[] claimAny(int count) {
+        if (count <= 0) {
+            return new int[0];
+        }
+        if (available.get() < count) {
+            return null;
+        }
+        int[] claimed = new int[count];
+        int found = 0;
+        int start = ThreadLocalRandom.current().nextInt(coaches.length);
+        for (int i = 0; i < coaches.length && found < count; i++) {
+            int coach = (start + i) % coaches.length;
+            found = claimInCoach(coach, claimed, found);
+        }
+        if (found < count) {
+            for (int j = 0; j < found; j++) {
+                release(claimed[j]);
+            }
+            return null;
+        }
+        return claimed;
+    }
+
+    private int claimInCoach(int coach, int[] claimed, int found) {
+        AtomicLongArray words = coaches[coach];
+        int base = coach * seatsPerCoach;
+        int seatsInCoach = Math.min(seatsPerCoach, totalSeats - base);
+        for (int w = 0; w < words.length() && found < claimed.length; w++) {
+            long valid = validMask(seatsInCoach, w);
+            long current = words.get(w);
+            long free = ~current & valid;
+            while (free != 0 && found < claimed.length) {
+                long bit = free & -free;
+                if (words.compareAndSet(w, current, current | bit)) {
+                    available.decrementAndGet();
+                    claimed[found++] = base + (w << 6) + Long.numberOfTrailingZeros(bit);
+                }
+                current = words.get(w);
+                free = ~current & valid;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Packs the occupancy into a dense bitset where bit {@code i} is seat {@code i}. Costs one
+     * pass over the coach words, not one step per seat.
+     */
+    public long[] toWords() {
+        long[] packed = new long[(totalSeats + 63) >>> 6];
+        for (int c = 0; c < coaches.length; c++) {
+            AtomicLongArray words = coaches[c];
+            int offset = c * seatsPerCoach;
+            for (int w = 0; w < words.length(); w++) {
+                long bits = words.get(w);
+                if (bits == 0) {
+                    continue;
+                }
+                int position = offset + (w << 6);
+                int index = position >>> 6;
+                int shift = position & 63;
+                packed[index] |= bits << shift;
+                if (shift != 0 && index + 1 < packed.length) {
+                    packed[index + 1] |= bits >>> (64 - shift);
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Marks every seat set in a dense bitset (as produced by {@link #toWords()}) as taken.
+     * Bits beyond this map's capacity are ignored so a resized schedule can still be restored.
+     */
+    public void claimFromWords(long[] packed) {
+        for (int index = 0; index < packed.length; index++) {
+            long bits = packed[index];
+            while (bits != 0) {
+                int seat = (index << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (seat < totalSeats) {
+                    claim(seat);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run-length encodes a dense bitset as alternating free/taken run lengths, starting with a
+     * (possibly empty) free run. Work is proportional to words plus runs, not to seats.
+     */
+    public static int[] toRuns(long[] packed, int totalSeats) {
+        int[] runs = new int[8];
+        int count = 0;
+        int position = 0;
+        boolean taken = false;
+        while (position < totalSeats) {
+            int next = taken ? nextClear(packed, position, totalSeats) : nextSet(packed, position, totalSeats);
+            if (count == runs.length) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            runs[count++] = next - position;
+            position = next;
+            taken = !taken;
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    private static int nextSet(long[] packed, int from, int limit) {
+        int index = from >>> 6;
+        if (index >= packed.length) {
+            return limit;
+        }
+        long word = packed[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == packed.length) {
+                return limit;
+            }
+            word = packed[index];
+        }
+        return Math.min(limit, (index << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    private static int nextClear(long[] packed, int from, int limit) {
+        int index = from >>> 6;
+        if (index >= packed.length) {
+            return limit;
+        }
+        long word = ~packed[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == packed.length) {
+                return limit;
+            }
+            word = ~packed[index];
+        }
+        return Math.min(limit, (index << 6) + Long.numberOfTrailingZeros(word));
+    }
+
+    private static long validMask(int seatsInCoach, int word) {
+        int remaining = seatsInCoach - (word << 6);
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= totalSeats) {
+            throw new IndexOutOfBoundsException("Seat " + seat + " outside 0.." + (totalSeats - 1));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+// SeatLayout.java
+package com.local.train.utils;
+
+/**
+ * Maps seat labels used by the seat selection UI ("A1", "D10", ...) to dense seat indexes.
+ * Seats are laid out four to a row (columns A-D) and rows keep counting across coaches.
+ */
+public final class SeatLayout {
+
+    public static final int SEATS_PER_ROW = 4;
+
+    private SeatLayout() {
+    }
+
+    public static String label(int seatIndex) {
+        char column = (char) ('A' + seatIndex % SEATS_PER_ROW);
+        return column + String.valueOf(seatIndex / SEATS_PER_ROW + 1);
+    }
+
+    /**
+     * @return the seat index for the label, or -1 if the label is malformed
+     */
+    public static int index(String label) {
+        if (label == null || label.length() < 2) {
+            return -1;
+        }
+        int column = Character.toUpperCase(label.charAt(0)) - 'A';
+        if (column < 0 || column >= SEATS_PER_ROW) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 1; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c < '0' || c > '9' || row > 100_000) {
+                return -1;
+            }
+            row = row * 10 + (c - '0');
+        }
+        if (row < 1) {
+            return -1;
+        }
+        return (row - 1) * SEATS_PER_ROW + column;
+    }
+}
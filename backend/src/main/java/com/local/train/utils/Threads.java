@@ -0,0 +1,23 @@
+// Threads.java
+package com.local.train.utils;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the application's own background workers.
+ *
+ * With {@code spring.threads.virtual.enabled} the blocking (JDBC, SMTP) workers run on virtual
+ * threads like the request handlers do; CPU-bound pools should always ask for platform threads.
+ */
+public final class Threads {
+
+    private Threads() {
+    }
+
+    public static ThreadFactory factory(String namePrefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(namePrefix, 0).factory();
+        }
+        return Thread.ofPlatform().name(namePrefix, 0).daemon(true).factory();
+    }
+}
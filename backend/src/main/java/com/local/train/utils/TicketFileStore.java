@@ -0,0 +1,94 @@
+// TicketFileStore.java
+package com.local.train.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store for ticket PDFs under {@code app.ticket.pdf.storage-path}.
+ *
+ * A file is named after the SHA-256 of its bytes ({@code ab/abcdef....pdf}), so stored files are
+ * immutable, identical content is stored once and the hash doubles as a strong ETag.
+ */
+@Component
+public class TicketFileStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{64}\\.pdf");
+
+    private final Path root;
+
+    public TicketFileStore(@Value("${app.ticket.pdf.storage-path}") String storagePath) {
+        this.root = Paths.get(storagePath).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param key  store-relative path, as kept in {@code Booking.ticketPath}
+     * @param path absolute location of the file
+     * @param hash hex SHA-256 of the content
+     */
+    public record StoredFile(String key, Path path, String hash) {
+
+        public String etag() {
+            return "\"" + hash + "\"";
+        }
+    }
+
+    public StoredFile store(byte[] content) throws IOException {
+        String hash = sha256(content);
+        String key = hash.substring(0, 2) + "/" + hash + ".pdf";
+        Path target = root.resolve(key);
+        if (Files.exists(target)) {
+            return new StoredFile(key, target, hash);
+        }
+
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        // Write aside and move into place so readers never see a partial file
+        Path temp = Files.createTempFile(directory, "ticket-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new StoredFile(key, target, hash);
+    }
+
+    /**
+     * @return the stored file for the key, or null if the key is not a store key or the file is gone
+     */
+    public StoredFile find(String key) {
+        if (key == null || !KEY.matcher(key).matches()) {
+            return null;
+        }
+        Path path = root.resolve(key);
+        if (!Files.isReadable(path)) {
+            return null;
+        }
+        return new StoredFile(key, path, key.substring(3, key.length() - 4));
+    }
+
+    public void delete(String key) throws IOException {
+        if (key != null && KEY.matcher(key).matches()) {
+            Files.deleteIfExists(root.resolve(key));
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
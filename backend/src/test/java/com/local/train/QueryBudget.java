@@ -0,0 +1,43 @@
+package com.local.train;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a test when a unit of work runs more SQL statements than its budget, counted from
+ * Hibernate statistics. Needs {@code spring.jpa.properties.hibernate.generate_statistics=true};
+ * counts are global, so budgeted tests must not run concurrently.
+ */
+public final class QueryBudget {
+
+    private final Statistics statistics;
+
+    private QueryBudget(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public static QueryBudget of(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Hibernate statistics are disabled; set hibernate.generate_statistics=true");
+        }
+        return new QueryBudget(statistics);
+    }
+
+    public <T> T atMost(long statements, String description, Supplier<T> work) {
+        statistics.clear();
+        T result = work.get();
+        long prepared = statistics.getPrepareStatementCount();
+        if (prepared > statements) {
+            fail(String.format("%s ran %d statements, budget is %d (entity loads %d, collection loads %d, queries %d)",
+                    description, prepared, statements, statistics.getEntityLoadCount(),
+                    statistics.getCollectionLoadCount(), statistics.getQueryExecutionCount()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.local.train.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Blocking-handler concurrency on the platform thread pool versus virtual threads. Each request
+ * blocks the way a JDBC call waiting on MySQL does. Run with {@code RUN_BENCHMARKS=true ./gradlew test}.
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int PLATFORM_MAX_THREADS = 200; // Tomcat's default server.tomcat.threads.max
+    private static final int CLIENTS = 1000;
+    private static final long BLOCKING_MS = 500;
+
+    @Test
+    void virtualThreadsExceedPlatformThreadLimit() throws Exception {
+        int platformPeak = peakConcurrency(false);
+        int virtualPeak = peakConcurrency(true);
+        System.out.printf("Peak concurrent blocking requests: platform=%d, virtual=%d (clients=%d)%n",
+                platformPeak, virtualPeak, CLIENTS);
+
+        assertTrue(platformPeak <= PLATFORM_MAX_THREADS,
+                "platform pool should cap concurrency at " + PLATFORM_MAX_THREADS + ", saw " + platformPeak);
+        assertTrue(virtualPeak > PLATFORM_MAX_THREADS,
+                "virtual threads should exceed " + PLATFORM_MAX_THREADS + " concurrent requests, saw " + virtualPeak);
+    }
+
+    private int peakConcurrency(boolean virtual) throws Exception {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        HttpServlet blocking = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(BLOCKING_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    current.decrementAndGet();
+                }
+                response.getWriter().write("ok");
+            }
+        };
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        if (virtual) {
+            // Same executor Spring Boot installs for spring.threads.virtual.enabled=true
+            factory.addProtocolHandlerCustomizers(handler -> handler.setExecutor(new VirtualThreadExecutor("tomcat-handler-")));
+        }
+        WebServer server = factory.getWebServer(context -> context.addServlet("blocking", blocking).addMapping("/blocking"));
+        server.start();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/blocking")).build();
+            List<Future<Integer>> responses = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                responses.add(clients.submit(() -> http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+            }
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get());
+            }
+        } finally {
+            server.stop();
+        }
+        return peak.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.local.train.service;
+
+import com.local.train.QueryBudget;
+import com.local.train.dto.BookingResponse;
+import com.local.train.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Booking read paths must cost a fixed number of statements however many bookings and passengers
+ * are involved. Needs a database; run with {@code DB_URL=jdbc:mysql://... ./gradlew test}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@Transactional
+class BookingReadQueryBudgetTest {
+
+    private static final int BOOKINGS = 25;
+    private static final int PASSENGERS_PER_BOOKING = 3;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryBudget budget;
+    private String email;
+    private Long scheduleId;
+    private String idempotencyKey;
+
+    @BeforeEach
+    void seed() {
+        budget = QueryBudget.of(entityManagerFactory);
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        User user = new User();
+        user.setEmail("budget-" + suffix + "@example.com");
+        user.setPassword("unused");
+        entityManager.persist(user);
+        email = user.getEmail();
+
+        Station source = Station.builder().stationCode("S" + suffix).stationName("Source " + suffix).build();
+        Station destination = Station.builder().stationCode("D" + suffix).stationName("Destination " + suffix).build();
+        Train train = Train.builder().trainNumber("T" + suffix).trainName("Budget Express").totalCoaches(10).build();
+        entityManager.persist(source);
+        entityManager.persist(destination);
+        entityManager.persist(train);
+
+        TrainSchedule schedule = new TrainSchedule();
+        schedule.setTrain(train);
+        schedule.setSourceStation(source);
+        schedule.setDestinationStation(destination);
+        schedule.setDepartureTime(LocalTime.of(8, 0));
+        schedule.setArrivalTime(LocalTime.of(9, 0));
+        schedule.setTotalSeats(500);
+        schedule.setAvailableSeats(500);
+        entityManager.persist(schedule);
+        scheduleId = schedule.getId();
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = Booking.builder()
+                    .user(user)
+                    .schedule(schedule)
+                    .travelClass(TravelClass.SECOND_CLASS)
+                    .totalFare(10_000)
+                    .status(BookingStatus.CONFIRMED)
+                    .journeyDate(LocalDateTime.now().plusDays(7))
+                    .idempotencyKey(i == 0 ? "budget-" + suffix : null)
+                    .build();
+            List<Passenger> passengers = new ArrayList<>();
+            for (int p = 0; p < PASSENGERS_PER_BOOKING; p++) {
+                passengers.add(Passenger.builder()
+                        .name("Passenger " + p)
+                        .age(30)
+                        .gender("F")
+                        .seatNumber(i + "-" + p)
+                        .booking(booking)
+                        .build());
+            }
+            booking.setPassengers(passengers);
+            entityManager.persist(booking); // passengers cascade
+        }
+        idempotencyKey = "budget-" + suffix;
+
+        entityManager.flush();
+        entityManager.clear();
+        userCache.get(email); // budgets cover the booking reads, not the first principal lookup
+    }
+
+    @Test
+    void userBookingsCostTwoStatements() {
+        // bookings with their stations in one select, passenger counts in another
+        List<BookingResponse> bookings = budget.atMost(2, "getUserBookings",
+                () -> bookingService.getUserBookings(email));
+
+        assertEquals(BOOKINGS, bookings.size());
+        assertTrue(bookings.stream().allMatch(booking -> booking.getPassengerCount() == PASSENGERS_PER_BOOKING));
+        assertTrue(bookings.stream().allMatch(booking -> booking.getSourceStation() != null));
+    }
+
+    @Test
+    void idempotentReplayCostsTwoStatements() {
+        Optional<BookingResponse> booking = budget.atMost(2, "findByIdempotencyKey",
+                () -> bookingService.findByIdempotencyKey(email, idempotencyKey));
+
+        assertTrue(booking.isPresent());
+        assertEquals(PASSENGERS_PER_BOOKING, booking.get().getPassengerCount());
+    }
+
+    @Test
+    void bookedSeatsCostOneStatement() {
+        List<String> seats = budget.atMost(1, "getBookedSeats",
+                () -> bookingService.getBookedSeats(scheduleId, null, null));
+
+        assertEquals(BOOKINGS * PASSENGERS_PER_BOOKING, seats.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.local.train.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Credits on a wallet the ledger has not loaded yet. The mocked balance query behaves like the
+ * database on the writing connection: once the credit row is inserted, its uncommitted delta is
+ * part of the loaded balance.
+ */
+class WalletLedgerTest {
+
+    private static final long WALLET_ID = 1L;
+
+    private final AtomicBoolean creditRowInserted = new AtomicBoolean();
+    private WalletLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForList(anyString(), eq(BigDecimal.class), eq(WALLET_ID)))
+                .thenAnswer(invocation -> List.of(creditRowInserted.get() ? new BigDecimal("150.00") : new BigDecimal("100.00")));
+        ledger = new WalletLedger(jdbcTemplate, mock(TransactionTemplate.class));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void coldCreditIsCountedOnceAfterCommit() {
+        ledger.credit(WALLET_ID, 5_000);
+        creditRowInserted.set(true);
+
+        assertEquals(10_000, ledger.getBalance(WALLET_ID), "credit must not be spendable before commit");
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(15_000, ledger.getBalance(WALLET_ID));
+    }
+
+    @Test
+    void coldCreditIsDroppedOnRollback() {
+        ledger.credit(WALLET_ID, 5_000);
+        creditRowInserted.set(true);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(10_000, ledger.getBalance(WALLET_ID));
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
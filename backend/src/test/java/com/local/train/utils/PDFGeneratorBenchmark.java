@@ -0,0 +1,89 @@
+package com.local.train.utils;
+
+import com.local.train.entity.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ticket rendering throughput. Run with {@code RUN_BENCHMARKS=true ./gradlew test}.
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class PDFGeneratorBenchmark {
+
+    private static final double TARGET_TICKETS_PER_SECOND_PER_CORE = 200;
+    private static final int WARMUP = 500;
+    private static final int TICKETS_PER_THREAD = 2000;
+
+    private final PDFGenerator generator = new PDFGenerator();
+    private final QRCodeGenerator qrCodeGenerator = new QRCodeGenerator(16);
+
+    @Test
+    void ticketsPerSecondPerCore() throws Exception {
+        Booking booking = sampleBooking();
+        byte[] qrCode = qrCodeGenerator.getQRCodeImage("PNR:" + booking.getPnrNumber(), 200, 200);
+
+        for (int i = 0; i < WARMUP; i++) {
+            generator.generateTicketPdf(booking, qrCode);
+        }
+
+        double singleThread = run(1, booking, qrCode);
+        int cores = Runtime.getRuntime().availableProcessors();
+        double allCores = run(cores, booking, qrCode);
+
+        System.out.printf("PDF tickets: %.0f/s on 1 thread, %.0f/s on %d threads (%.0f/s per core)%n",
+                singleThread, allCores, cores, allCores / cores);
+        assertTrue(singleThread >= TARGET_TICKETS_PER_SECOND_PER_CORE,
+                "Expected at least " + TARGET_TICKETS_PER_SECOND_PER_CORE + " tickets/s per core, got " + singleThread);
+    }
+
+    private double run(int threads, Booking booking, byte[] qrCode) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < TICKETS_PER_THREAD; i++) {
+                        generator.generateTicketPdf(booking, qrCode);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return threads * TICKETS_PER_THREAD / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Booking sampleBooking() {
+        TrainSchedule schedule = TrainSchedule.builder()
+                .sourceStation(Station.builder().id(1L).stationName("Churchgate").build())
+                .destinationStation(Station.builder().id(2L).stationName("Borivali").build())
+                .build();
+        Booking booking = Booking.builder()
+                .pnrNumber("PNR123456789")
+                .status(BookingStatus.CONFIRMED)
+                .travelClass(TravelClass.SECOND_CLASS)
+                .journeyDate(LocalDateTime.now().plusDays(1))
+                .totalFare(12_050)
+                .schedule(schedule)
+                .build();
+        booking.setPassengers(List.of(
+                Passenger.builder().name("Asha Rao").age(34).gender("F").booking(booking).build(),
+                Passenger.builder().name("Vikram Rao").age(36).gender("M").booking(booking).build()));
+        return booking;
+    }
+}
@@ -1,10 +1,12 @@
-import React, { useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { motion, AnimatePresence } from 'framer-motion';
 import { X, User, ChevronRight, ChevronLeft, CreditCard, Wallet as WalletIcon, Check } from 'lucide-react';
 import SeatSelection from './SeatSelection';
-import { bookingService } from '../services/api';
+import { bookingService, newIdempotencyKey } from '../services/api';
 
-const BookingModal = ({ schedule, onClose, onSuccess }) => {
+const TRAVEL_CLASS = 'SECOND_CLASS';
+
+const BookingModal = ({ schedule, journeyDate, onClose, onSuccess }) => {
     const [step, setStep] = useState(1);
     const [passengerCount, setPassengerCount] = useState(1);
     const [passengers, setPassengers] = useState([{ name: '', age: '', gender: 'MALE' }]);
@@ -12,6 +14,12 @@ const BookingModal = ({ schedule, onClose, onSuccess }) => {
     const [paymentMethod, setPaymentMethod] = useState('WALLET'); // WALLET or CREDIT_CARD
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState('');
+    // One key per booking attempt: retries reuse it, changing the booking starts a new attempt
+    const idempotencyKey = useRef(newIdempotencyKey());
+
+    useEffect(() => {
+        idempotencyKey.current = newIdempotencyKey();
+    }, [passengers, selectedSeats, paymentMethod]);
 
     const handlePassengerCountChange = (e) => {
         const count = parseInt(e.target.value) || 1;
@@ -69,13 +77,13 @@ const BookingModal = ({ schedule, onClose, onSuccess }) => {
 
             const bookingData = {
                 scheduleId: schedule.id,
-                travelClass: 'SECOND_CLASS',
+                travelClass: TRAVEL_CLASS,
                 paymentMethod: paymentMethod,
-                journeyDate: schedule.departureTime.split('T')[0], // Assuming same day booking for now
+                journeyDate,
                 passengers: passengersWithSeats
             };
 
-            await bookingService.createBooking(bookingData);
+            await bookingService.createBooking(bookingData, idempotencyKey.current);
             onSuccess();
             onClose();
         } catch (err) {
@@ -99,7 +107,7 @@ const BookingModal = ({ schedule, onClose, onSuccess }) => {
                 <div className="bg-indigo-600 p-6 flex justify-between items-center text-white">
                     <div>
                         <h2 className="text-xl font-bold">Book Ticket</h2>
-                        <p className="text-indigo-100 text-sm">{schedule.train.trainName} • {schedule.sourceStation.stationName} → {schedule.destinationStation.stationName}</p>
+                        <p className="text-indigo-100 text-sm">{schedule.trainName} • {schedule.sourceStation} → {schedule.destinationStation}</p>
                     </div>
                     <button onClick={onClose} className="p-2 hover:bg-white/20 rounded-full transition-colors"><X className="w-5 h-5" /></button>
                 </div>
@@ -177,6 +185,8 @@ const BookingModal = ({ schedule, onClose, onSuccess }) => {
                         <div className="space-y-4">
                             <SeatSelection
                                 scheduleId={schedule.id}
+                                journeyDate={journeyDate}
+                                travelClass={TRAVEL_CLASS}
                                 passengerCount={passengerCount}
                                 onSeatsSelected={setSelectedSeats}
                             />
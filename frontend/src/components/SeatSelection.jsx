@@ -1,7 +1,25 @@
 import React, { useState, useEffect } from 'react';
 import { bookingService } from '../services/api';
 
-const SeatSelection = ({ scheduleId, passengerCount, onSeatsSelected }) => {
+// Seat i is column 'ABCD'[i % 4] in row i / 4 + 1, matching the server's seat labels
+const seatLabel = (index) => `${'ABCD'[index % 4]}${Math.floor(index / 4) + 1}`;
+
+// Expands alternating free/taken run lengths (starting with free) into booked seat labels
+const bookedFromRuns = (runs) => {
+    const booked = [];
+    let position = 0;
+    runs.forEach((length, i) => {
+        if (i % 2 === 1) {
+            for (let seat = position; seat < position + length; seat++) {
+                booked.push(seatLabel(seat));
+            }
+        }
+        position += length;
+    });
+    return booked;
+};
+
+const SeatSelection = ({ scheduleId, journeyDate, travelClass, passengerCount, onSeatsSelected }) => {
     const [bookedSeats, setBookedSeats] = useState([]);
     const [selectedSeats, setSelectedSeats] = useState([]);
     const [loading, setLoading] = useState(true);
@@ -12,13 +30,13 @@ const SeatSelection = ({ scheduleId, passengerCount, onSeatsSelected }) => {
 
     useEffect(() => {
         fetchBookedSeats();
-    }, [scheduleId]);
+    }, [scheduleId, journeyDate, travelClass]);
 
     const fetchBookedSeats = async () => {
         try {
             setLoading(true);
-            const res = await bookingService.getBookedSeats(scheduleId);
-            setBookedSeats(res.data);
+            const res = await bookingService.getSeatMap(scheduleId, journeyDate, travelClass);
+            setBookedSeats(bookedFromRuns(res.data.runs || []));
         } catch (error) {
             console.error("Failed to fetch seat availability", error);
         } finally {
@@ -167,7 +167,6 @@ const Dashboard = () => {
                                         <th className="px-8 py-4 text-left text-xs font-bold text-gray-500 uppercase tracking-wider">Train Details</th>
                                         <th className="px-8 py-4 text-left text-xs font-bold text-gray-500 uppercase tracking-wider">Departure</th>
                                         <th className="px-8 py-4 text-left text-xs font-bold text-gray-500 uppercase tracking-wider">Arrival</th>
-                                        <th className="px-8 py-4 text-left text-xs font-bold text-gray-500 uppercase tracking-wider">Seats</th>
                                         <th className="px-8 py-4 text-right text-xs font-bold text-gray-500 uppercase tracking-wider">Action</th>
                                     </tr>
                                 </thead>
@@ -180,18 +179,13 @@ const Dashboard = () => {
                                                         <Train className="w-5 h-5" />
                                                     </div>
                                                     <div className="ml-4">
-                                                        <div className="text-sm font-bold text-gray-900">{schedule.train.trainName}</div>
-                                                        <div className="text-xs text-gray-500">{schedule.train.trainNumber}</div>
+                                                        <div className="text-sm font-bold text-gray-900">{schedule.trainName}</div>
+                                                        <div className="text-xs text-gray-500">{schedule.trainNumber}</div>
                                                     </div>
                                                 </div>
                                             </td>
                                             <td className="px-8 py-6 whitespace-nowrap text-sm text-gray-700 font-medium">{schedule.departureTime}</td>
                                             <td className="px-8 py-6 whitespace-nowrap text-sm text-gray-700 font-medium">{schedule.arrivalTime}</td>
-                                            <td className="px-8 py-6 whitespace-nowrap">
-                                                <span className={`px-2 py-1 inline-flex text-xs leading-5 font-semibold rounded-full ${schedule.availableSeats > 10 ? 'bg-green-100 text-green-800' : 'bg-red-100 text-red-800'}`}>
-                                                    {schedule.availableSeats} Seats
-                                                </span>
-                                            </td>
                                             <td className="px-8 py-6 whitespace-nowrap text-right text-sm font-medium">
                                                 <button
                                                     onClick={() => setSelectedSchedule(schedule)}
@@ -304,6 +298,7 @@ const Dashboard = () => {
                 {selectedSchedule && (
                     <BookingModal
                         schedule={selectedSchedule}
+                        journeyDate={searchParams.date}
                         onClose={() => setSelectedSchedule(null)}
                         onSuccess={handleBookingSuccess}
                     />
@@ -41,13 +41,36 @@ export const authService = {
     refreshToken: (token) => api.post('/auth/refresh-token', { token }),
 };
 
+// crypto.randomUUID is only available in secure contexts (HTTPS or localhost)
+export const newIdempotencyKey = () => {
+    if (globalThis.crypto?.randomUUID) {
+        return globalThis.crypto.randomUUID();
+    }
+    const bytes = new Uint8Array(16);
+    if (globalThis.crypto?.getRandomValues) {
+        globalThis.crypto.getRandomValues(bytes);
+    } else {
+        for (let i = 0; i < bytes.length; i++) {
+            bytes[i] = Math.floor(Math.random() * 256);
+        }
+    }
+    bytes[6] = (bytes[6] & 0x0f) | 0x40;
+    bytes[8] = (bytes[8] & 0x3f) | 0x80;
+    const hex = Array.from(bytes, b => b.toString(16).padStart(2, '0')).join('');
+    return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+};
+
 export const bookingService = {
-    createBooking: (data) => api.post('/bookings', data),
+    // Pass the same key when retrying one booking attempt so the server books it at most once
+    createBooking: (data, idempotencyKey) =>
+        api.post('/bookings', data, { headers: { 'Idempotency-Key': idempotencyKey } }),
     getUserBookings: () => api.get('/bookings/my-bookings'),
     cancelBooking: (id) => api.post(`/bookings/${id}/cancel`),
     searchSchedules: (sourceId, destinationId, date) =>
         api.get(`/bookings/search?sourceId=${sourceId}&destinationId=${destinationId}&date=${date}`),
     getBookedSeats: (scheduleId) => api.get(`/bookings/schedules/${scheduleId}/seats`),
+    getSeatMap: (scheduleId, date, travelClass, encoding = 'RLE') =>
+        api.get(`/bookings/schedules/${scheduleId}/seat-map?date=${date}&travelClass=${travelClass}&encoding=${encoding}`),
     getAllStations: () => api.get('/bookings/stations'),
     downloadTicket: (id) => api.get(`/bookings/${id}/ticket`, { responseType: 'blob' }),
 };